@@ -0,0 +1,89 @@
+package com.wissen.mandihub.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * End-to-end invocation of the product handlers: Spring MVC, the handler, MongoDB and Jackson.
+ *   ./gradlew jmh -PjmhIncludes=HandlerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandlerBenchmark
+{
+    private String productName;
+    private String updateBody;
+
+    @Setup(Level.Trial)
+    public void setUp(InMemoryApplication application) throws Exception
+    {
+        Product product = application.getProduct();
+        productName = product.getName();
+
+        //Puts the product into the first two categories and keeps everything else, so every call after the first one
+        //leaves the catalog as it is.
+        Product update = new Product(product.getName(), product.getDescription(), product.getPrice(), new Seller(), new HashSet<>());
+        update.setId(product.getId());
+        for (int i = 0; i < 2; i++)
+        {
+            update.getFallIntoCategories().add(new EmbeddedCategory(application.getCategories().get(i).getId(), null));
+        }
+        updateBody = new ObjectMapper().writeValueAsString(update);
+    }
+
+
+    @Benchmark
+    public MvcResult getProductByName(InMemoryApplication application) throws Exception
+    {
+        return application.getMockMvc().perform(get("/product/mongo").param("name", productName)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getProductPage(InMemoryApplication application) throws Exception
+    {
+        return application.getMockMvc().perform(get("/product/page/mongo").param("sort", "price").param("size", "50")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getAllProducts(InMemoryApplication application) throws Exception
+    {
+        return application.getMockMvc().perform(get("/product/all/mongo").accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getCategoryProducts(InMemoryApplication application) throws Exception
+    {
+        return application.getMockMvc().perform(get("/category/" + application.getCategories().get(0).getId() + "/products")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult updateProduct(InMemoryApplication application) throws Exception
+    {
+        return application.getMockMvc().perform(put("/product/mongo").contentType(MediaType.APPLICATION_JSON).content(updateBody)).andReturn();
+    }
+}
@@ -0,0 +1,115 @@
+package com.wissen.mandihub.benchmarks;
+
+import com.wissen.mandihub.Application;
+import com.wissen.mandihub.ingest.BulkIngestResult;
+import com.wissen.mandihub.ingest.ProductBulkIngester;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.repositories.CategoryRepository;
+import com.wissen.mandihub.mongodb.repositories.ProductRepository;
+import com.wissen.mandihub.mongodb.repositories.SellerRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The whole application on top of an in-memory MongoDB stand-in (mongo-java-server), with a catalog of
+ * PRODUCTS products on top of the seed fixtures. Handlers are called
+ * through MockMvc, so the numbers include Spring MVC and Jackson but no network.
+ */
+@State(Scope.Benchmark)
+public class InMemoryApplication
+{
+    public static final int PRODUCTS = 1000;
+
+    private MongoServer mongoServer;
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    private Seller seller;
+    private List<Category> categories;
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void start()
+    {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        //Arguments, because they override application.properties.
+        context = new SpringApplicationBuilder(Application.class)
+                .run("--spring.data.mongodb.uri=mongodb://" + address.getHostString() + ":" + address.getPort() + "/benchmark",
+                     "--server.port=0",
+                     "--mandihub.seed.enabled=true");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        seller = context.getBean(SellerRepository.class).findAll().get(0);
+        categories = context.getBean(CategoryRepository.class).findAll();
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++)
+        {
+            HashSet<EmbeddedCategory> fallIntoCategories = new HashSet<>();
+            for (int c = 0; c < 1 + random.nextInt(3); c++)
+            {
+                Category category = categories.get(random.nextInt(categories.size()));
+                fallIntoCategories.add(new EmbeddedCategory(category.getId(), null));
+            }
+            products.add(new Product("Product " + i, "Description of product " + i, 1 + random.nextInt(500), seller, fallIntoCategories));
+        }
+        BulkIngestResult result = context.getBean(ProductBulkIngester.class).ingest(products);
+        product = context.getBean(ProductRepository.class).findById(result.getItems().get(PRODUCTS / 2).getId()).orElseThrow(IllegalStateException::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.close();
+        mongoServer.shutdownNow();
+    }
+
+
+    public ConfigurableApplicationContext getContext()
+    {
+        return context;
+    }
+
+    public MockMvc getMockMvc()
+    {
+        return mockMvc;
+    }
+
+    public Seller getSeller()
+    {
+        return seller;
+    }
+
+    public List<Category> getCategories()
+    {
+        return categories;
+    }
+
+    /**
+     * A product from the middle of the generated catalog.
+     */
+    public Product getProduct()
+    {
+        return product;
+    }
+}
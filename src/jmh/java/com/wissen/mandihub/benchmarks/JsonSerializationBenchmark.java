@@ -0,0 +1,85 @@
+package com.wissen.mandihub.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wissen.mandihub.enums.Gender;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Profile;
+import com.wissen.mandihub.mongodb.models.Seller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the list responses (/product/all/mongo, /category/all/mongo) with the
+ * ObjectMapper settings Spring MVC uses.
+ *   ./gradlew jmh -PjmhIncludes=JsonSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark
+{
+    @Param({"50", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private List<Category> categories;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Seller seller = new Seller("Peter's account id = 391", new Profile("Peter", "Smith", Gender.Male));
+        seller.setId("61d5c2a9e4b0a1c2d3e4f500");
+        products = new ArrayList<>(size);
+        categories = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            String id = String.format("61d5c2a9e4b0a1c2d3%06x", i);
+            HashSet<EmbeddedCategory> fallIntoCategories = new HashSet<>(Arrays.asList(
+                    new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f501", "Handmade"),
+                    new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f502", "Wood")));
+            Product product = new Product("Product " + i, "This is more durable than traditional hardwood spoon, safe to use any cookware.", 13.11f + i, seller, fallIntoCategories);
+            product.setId(id);
+            product.setImage_URLs(Arrays.asList("https://img.example.com/" + i + "-1.jpg"));
+            products.add(product);
+            categories.add(new Category(id, "Category " + i));
+        }
+    }
+
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception
+    {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeCategories() throws Exception
+    {
+        return objectMapper.writeValueAsBytes(categories);
+    }
+}
@@ -0,0 +1,210 @@
+package com.wissen.mandihub.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wissen.mandihub.enums.Gender;
+import com.wissen.mandihub.mongodb.codecs.CodecMappingMongoConverter;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Profile;
+import com.wissen.mandihub.mongodb.models.Seller;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing products, sellers and categories with the reflective mapping of MappingMongoConverter
+ * against the hand-written codecs of CodecMappingMongoConverter. The gc profiler reports the allocations:
+ *   ./gradlew jmh -PjmhIncludes=ModelConversionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelConversionBenchmark
+{
+    private MongoClient mongoClient;
+    private MappingMongoConverter reflective;
+    private MappingMongoConverter codecs;
+
+    private Product product;
+    private Seller seller;
+    private Category category;
+    private Document reflectiveProductDocument;
+    private Document reflectiveSellerDocument;
+    private Document productDocument;
+    private Document sellerDocument;
+    private Document reflectiveCategoryDocument;
+    private Document categoryDocument;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        //Lazy DBRefs need a resolver with a database factory; nothing here ever connects to it.
+        mongoClient = MongoClients.create("mongodb://localhost:27017");
+        reflective = converter(mongoClient, false);
+        codecs = converter(mongoClient, true);
+
+        Profile profile = new Profile("Peter", "Smith", Gender.Male);
+        profile.setEmailAddress("peter@example.com");
+        profile.setAddress("1 Market Street");
+        seller = new Seller("Peter's account id = 391", profile);
+        seller.setId("61d5c2a9e4b0a1c2d3e4f500");
+
+        HashSet<EmbeddedCategory> categories = new HashSet<>(Arrays.asList(
+                new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f501", "Handmade"),
+                new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f502", "Wood"),
+                new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f503", "Kitchen")));
+        product = new Product("Bamboo Spoon", "This is more durable than traditional hardwood spoon, safe to use any cookware.", 13.11f, seller, categories);
+        product.setId("61d5c2a9e4b0a1c2d3e4f504");
+        product.setImage_URLs(Arrays.asList("https://img.example.com/spoon-1.jpg", "https://img.example.com/spoon-2.jpg"));
+
+        category = new Category("61d5c2a9e4b0a1c2d3e4f503", "Kitchen");
+
+        reflectiveProductDocument = new Document();
+        reflective.write(product, reflectiveProductDocument);
+        reflectiveSellerDocument = new Document();
+        reflective.write(seller, reflectiveSellerDocument);
+        productDocument = new Document();
+        codecs.write(product, productDocument);
+        sellerDocument = new Document();
+        codecs.write(seller, sellerDocument);
+        reflectiveCategoryDocument = new Document();
+        reflective.write(category, reflectiveCategoryDocument);
+        categoryDocument = new Document();
+        codecs.write(category, categoryDocument);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        mongoClient.close();
+    }
+
+
+    @Benchmark
+    public Product readProductReflective()
+    {
+        return reflective.read(Product.class, reflectiveProductDocument);
+    }
+
+    @Benchmark
+    public Product readProductCodecs()
+    {
+        return codecs.read(Product.class, productDocument);
+    }
+
+    @Benchmark
+    public Document writeProductReflective()
+    {
+        Document document = new Document();
+        reflective.write(product, document);
+        return document;
+    }
+
+    @Benchmark
+    public Document writeProductCodecs()
+    {
+        Document document = new Document();
+        codecs.write(product, document);
+        return document;
+    }
+
+    @Benchmark
+    public Seller readSellerReflective()
+    {
+        return reflective.read(Seller.class, reflectiveSellerDocument);
+    }
+
+    @Benchmark
+    public Seller readSellerCodecs()
+    {
+        return codecs.read(Seller.class, sellerDocument);
+    }
+
+    @Benchmark
+    public Document writeSellerReflective()
+    {
+        Document document = new Document();
+        reflective.write(seller, document);
+        return document;
+    }
+
+    @Benchmark
+    public Document writeSellerCodecs()
+    {
+        Document document = new Document();
+        codecs.write(seller, document);
+        return document;
+    }
+
+    @Benchmark
+    public Category readCategoryReflective()
+    {
+        return reflective.read(Category.class, reflectiveCategoryDocument);
+    }
+
+    @Benchmark
+    public Category readCategoryCodecs()
+    {
+        return codecs.read(Category.class, categoryDocument);
+    }
+
+    @Benchmark
+    public Document writeCategoryReflective()
+    {
+        Document document = new Document();
+        reflective.write(category, document);
+        return document;
+    }
+
+    @Benchmark
+    public Document writeCategoryCodecs()
+    {
+        Document document = new Document();
+        codecs.write(category, document);
+        return document;
+    }
+
+
+    //The same setup as MongoConfig.
+    private static MappingMongoConverter converter(MongoClient mongoClient, boolean codecs)
+    {
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        SimpleMongoClientDatabaseFactory databaseFactory = new SimpleMongoClientDatabaseFactory(mongoClient, "benchmark");
+        DbRefResolver dbRefResolver = new DefaultDbRefResolver(databaseFactory);
+        MappingMongoConverter converter = codecs
+                ? new CodecMappingMongoConverter(dbRefResolver, mappingContext)
+                : new MappingMongoConverter(dbRefResolver, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,59 @@
+package com.wissen.mandihub.controllers;
+
+import com.wissen.mandihub.benchmarks.InMemoryApplication;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The construction of the EmbeddedCategory set of a product by ProductCategories, from the categories of the request.
+ * The categories are in the category cache, which is the common case.
+ *   ./gradlew jmh -PjmhIncludes=ProductCategoriesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCategoriesBenchmark
+{
+    private ProductCategories productCategories;
+    private Set<EmbeddedCategory> requested;
+
+    @Setup(Level.Trial)
+    public void setUp(InMemoryApplication application)
+    {
+        productCategories = application.getContext().getBean(ProductCategories.class);
+        requested = new HashSet<>();
+        for (Category category : application.getCategories())
+        {
+            requested.add(new EmbeddedCategory(category.getId(), null));
+        }
+        //Loads the categories into the cache.
+        productCategories.resolve(requested, new HashSet<>());
+    }
+
+
+    @Benchmark
+    public HashSet<EmbeddedCategory> resolveCategories()
+    {
+        HashSet<EmbeddedCategory> categories = new HashSet<>();
+        productCategories.resolve(requested, categories);
+        return categories;
+    }
+}
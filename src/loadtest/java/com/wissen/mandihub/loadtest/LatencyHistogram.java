@@ -0,0 +1,47 @@
+package com.wissen.mandihub.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records request latencies in microseconds and reports percentiles.
+ * Not thread safe; each worker keeps its own histogram and they are merged at the end.
+ */
+public class LatencyHistogram
+{
+    private long[] samples = new long[1024];
+    private int count;
+
+    public void record(long micros)
+    {
+        if (count == samples.length)
+        {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = micros;
+    }
+
+    public void merge(LatencyHistogram other)
+    {
+        for (int i = 0; i < other.count; i++)
+        {
+            record(other.samples[i]);
+        }
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    public long percentile(double p)
+    {
+        if (count == 0)
+        {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -0,0 +1,243 @@
+package com.wissen.mandihub.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Drives a fixed number of concurrent clients against a weighted mix of operations for a fixed duration.
+ * Every client picks its next operation at random in proportion to the weights, from a generator seeded
+ * with its own number, so repeated runs (and both sides of a comparison) send the same request mix.
+ */
+public class LoadHarness
+{
+    private final HttpClient _httpClient;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+
+    public LoadHarness(int concurrency, Duration warmup, Duration duration)
+    {
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this._httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(concurrency))
+                .build();
+    }
+
+    /**
+     * Sends GET requests to the paths, every path as often as the others.
+     */
+    public Result run(String baseUrl, List<String> paths) throws Exception
+    {
+        List<Operation> operations = new ArrayList<>();
+        for (String path : paths)
+        {
+            operations.add(Operation.get(path, 1, random -> path));
+        }
+        return runMix(baseUrl, operations);
+    }
+
+    public Result runMix(String baseUrl, List<Operation> operations) throws Exception
+    {
+        if (!warmup.isZero())
+        {
+            drive(baseUrl, operations, warmup);
+        }
+        return drive(baseUrl, operations, duration);
+    }
+
+    private Result drive(String baseUrl, List<Operation> operations, Duration window) throws Exception
+    {
+        double[] cumulativeWeights = new double[operations.size()];
+        double totalWeight = 0;
+        for (int i = 0; i < operations.size(); i++)
+        {
+            totalWeight += operations.get(i).getWeight();
+            cumulativeWeights[i] = totalWeight;
+        }
+        double weightSum = totalWeight;
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + window.toNanos();
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int worker = 0; worker < concurrency; worker++)
+        {
+            Random random = new Random(worker);
+            futures.add(workers.submit(() ->
+            {
+                Result result = new Result(window);
+                while (System.nanoTime() < deadline)
+                {
+                    Operation operation = operations.get(pick(cumulativeWeights, random.nextDouble() * weightSum));
+                    long start = System.nanoTime();
+                    boolean failed = false;
+                    try
+                    {
+                        HttpRequest request = operation.getRequest().apply(baseUrl, random)
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        HttpResponse<Void> response = _httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        failed = response.statusCode() >= 500;
+                    }
+                    catch (Exception e)
+                    {
+                        failed = true;
+                    }
+                    result.record(operation.getName(), (System.nanoTime() - start) / 1_000, failed);
+                }
+                return result;
+            }));
+        }
+        Result total = new Result(window);
+        for (Future<Result> future : futures)
+        {
+            total.merge(future.get());
+        }
+        workers.shutdown();
+        return total;
+    }
+
+    private static int pick(double[] cumulativeWeights, double target)
+    {
+        for (int i = 0; i < cumulativeWeights.length; i++)
+        {
+            if (target < cumulativeWeights[i])
+            {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    /**
+     * One kind of request in a workload: builds the request from the base URL and the client's random generator.
+     */
+    public static class Operation
+    {
+        private final String name;
+        private final double weight;
+        private final BiFunction<String, Random, HttpRequest.Builder> request;
+
+        public Operation(String name, double weight, BiFunction<String, Random, HttpRequest.Builder> request)
+        {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        public static Operation get(String name, double weight, Function<Random, String> path)
+        {
+            return new Operation(name, weight, (baseUrl, random) -> HttpRequest.newBuilder(URI.create(baseUrl + path.apply(random))).GET());
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public double getWeight()
+        {
+            return weight;
+        }
+
+        public BiFunction<String, Random, HttpRequest.Builder> getRequest()
+        {
+            return request;
+        }
+    }
+
+    public static class Result
+    {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Map<String, LatencyHistogram> histogramsByOperation = new LinkedHashMap<>();
+        private final Map<String, Long> errorsByOperation = new LinkedHashMap<>();
+        private long errors;
+        private final Duration window;
+
+        Result(Duration window)
+        {
+            this.window = window;
+        }
+
+        void record(String operation, long micros, boolean failed)
+        {
+            histogram.record(micros);
+            histogramsByOperation.computeIfAbsent(operation, name -> new LatencyHistogram()).record(micros);
+            if (failed)
+            {
+                errors++;
+                errorsByOperation.merge(operation, 1L, Long::sum);
+            }
+        }
+
+        void merge(Result other)
+        {
+            histogram.merge(other.histogram);
+            for (Map.Entry<String, LatencyHistogram> entry : other.histogramsByOperation.entrySet())
+            {
+                histogramsByOperation.computeIfAbsent(entry.getKey(), name -> new LatencyHistogram()).merge(entry.getValue());
+            }
+            for (Map.Entry<String, Long> entry : other.errorsByOperation.entrySet())
+            {
+                errorsByOperation.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+            errors += other.errors;
+        }
+
+        public LatencyHistogram getHistogram()
+        {
+            return histogram;
+        }
+
+        public long getErrors()
+        {
+            return errors;
+        }
+
+        public double throughput()
+        {
+            return histogram.getCount() / (window.toMillis() / 1000.0);
+        }
+
+        /**
+         * The totals followed by one line per operation.
+         */
+        public String report()
+        {
+            StringBuilder report = new StringBuilder(toString());
+            for (Map.Entry<String, LatencyHistogram> entry : histogramsByOperation.entrySet())
+            {
+                report.append(System.lineSeparator()).append(String.format("  %-20s ", entry.getKey()))
+                        .append(format(entry.getValue(), errorsByOperation.getOrDefault(entry.getKey(), 0L)));
+            }
+            return report.toString();
+        }
+
+        @Override
+        public String toString()
+        {
+            return format(histogram, errors);
+        }
+
+        private String format(LatencyHistogram histogram, long errors)
+        {
+            return String.format("requests=%d errors=%d throughput=%.1f req/s p50=%.2fms p95=%.2fms p99=%.2fms",
+                    histogram.getCount(), errors, histogram.getCount() / (window.toMillis() / 1000.0),
+                    histogram.percentile(50) / 1000.0, histogram.percentile(95) / 1000.0, histogram.percentile(99) / 1000.0);
+        }
+    }
+}
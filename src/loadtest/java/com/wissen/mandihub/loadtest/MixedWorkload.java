@@ -0,0 +1,158 @@
+package com.wissen.mandihub.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replays a mixed read/write workload against /product, /seller and /category of a running instance,
+ * typically one loaded by the "generate" profile, and reports throughput and latency percentiles per operation.
+ * The products, sellers and categories the requests refer to are sampled from the first pages of each collection.
+ *
+ * System properties: baseUrl, concurrency, warmupSeconds, durationSeconds and weights, which overrides the
+ * weights of DEFAULT_WEIGHTS, e.g. -Dweights=productByName=50,createProduct=0
+ */
+public class MixedWorkload
+{
+    private static final String DEFAULT_WEIGHTS = "productByName=30,productPage=15,categoryProducts=15,"
+            + "sellerByFirstName=10,categoryByName=10,createProduct=10,updateProduct=10";
+
+    private static final Pattern PRODUCT = Pattern.compile("\\{\"id\":\"([^\"]+)\",\"name\":\"((?:[^\"\\\\]|\\\\.)*)\",\"description\"");
+    private static final Pattern CATEGORY = Pattern.compile("\\{\"id\":\"([^\"]+)\",\"name\":\"((?:[^\"\\\\]|\\\\.)*)\"\\}");
+    private static final Pattern SELLER = Pattern.compile("\\{\"id\":\"([^\"]+)\",\"accountId\":\"[^\"]*\",\"profile\":\\{\"firstName\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    public static void main(String[] args) throws Exception
+    {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080");
+        int concurrency = Integer.getInteger("concurrency", 64);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("durationSeconds", 60));
+        Map<String, Double> weights = parseWeights(DEFAULT_WEIGHTS);
+        weights.putAll(parseWeights(System.getProperty("weights", "")));
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<String[]> products = sample(client, baseUrl + "/product/page/mongo?size=500", PRODUCT);
+        List<String[]> categories = sample(client, baseUrl + "/category/page/mongo?size=500", CATEGORY);
+        List<String[]> sellers = sample(client, baseUrl + "/seller/page/mongo?size=500", SELLER);
+        if (products.isEmpty() || categories.isEmpty() || sellers.isEmpty())
+        {
+            System.out.println("The workload needs products, categories and sellers, load some with the generate profile first.");
+            System.exit(1);
+        }
+
+        List<LoadHarness.Operation> operations = new ArrayList<>();
+        add(operations, weights, "productByName", (url, random) ->
+                get(url + "/product/mongo?name=" + encode(pick(products, random)[1])));
+        add(operations, weights, "productPage", (url, random) ->
+                get(url + "/product/page/mongo?sort=" + (random.nextBoolean() ? "name" : "price")));
+        add(operations, weights, "categoryProducts", (url, random) ->
+                get(url + "/category/" + pick(categories, random)[0] + "/products"));
+        add(operations, weights, "sellerByFirstName", (url, random) ->
+                get(url + "/seller/mongo?firstName=" + encode(pick(sellers, random)[1])));
+        add(operations, weights, "categoryByName", (url, random) ->
+                get(url + "/category/mongo?name=" + encode(pick(categories, random)[1])));
+        add(operations, weights, "createProduct", (url, random) ->
+                json(url + "/product/mongo", "POST", productJson(null, "loadtest " + Long.toHexString(random.nextLong()),
+                        pick(sellers, random)[0], pick(categories, random)[0], random)));
+        //Keeps the name, so the products stay findable by productByName.
+        add(operations, weights, "updateProduct", (url, random) ->
+        {
+            String[] product = pick(products, random);
+            return json(url + "/product/mongo", "PUT", productJson(product[0], product[1], null, pick(categories, random)[0], random));
+        });
+
+        System.out.println("baseUrl=" + baseUrl + " concurrency=" + concurrency + " duration=" + duration.getSeconds()
+                + "s products=" + products.size() + " categories=" + categories.size() + " sellers=" + sellers.size()
+                + " weights=" + weights);
+        System.out.println(new LoadHarness(concurrency, warmup, duration).runMix(baseUrl, operations).report());
+        System.exit(0);
+    }
+
+    private static void add(List<LoadHarness.Operation> operations, Map<String, Double> weights, String name,
+                            BiFunction<String, Random, HttpRequest.Builder> request)
+    {
+        double weight = weights.getOrDefault(name, 0.0);
+        if (weight > 0)
+        {
+            operations.add(new LoadHarness.Operation(name, weight, request));
+        }
+    }
+
+    private static Map<String, Double> parseWeights(String weights)
+    {
+        Map<String, Double> parsed = new LinkedHashMap<>();
+        for (String weight : weights.split(","))
+        {
+            if (!weight.isBlank())
+            {
+                String[] nameAndValue = weight.split("=");
+                parsed.put(nameAndValue[0].trim(), Double.parseDouble(nameAndValue[1].trim()));
+            }
+        }
+        return parsed;
+    }
+
+    //Every match of the pattern as {id, name}.
+    private static List<String[]> sample(HttpClient client, String url, Pattern pattern) throws Exception
+    {
+        String body = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+        List<String[]> matches = new ArrayList<>();
+        Matcher matcher = pattern.matcher(body);
+        while (matcher.find())
+        {
+            matches.add(new String[]{matcher.group(1), matcher.group(2).replace("\\\"", "\"").replace("\\\\", "\\")});
+        }
+        return matches;
+    }
+
+    private static String[] pick(List<String[]> samples, Random random)
+    {
+        return samples.get(random.nextInt(samples.size()));
+    }
+
+    private static HttpRequest.Builder get(String url)
+    {
+        return HttpRequest.newBuilder(URI.create(url)).GET();
+    }
+
+    private static HttpRequest.Builder json(String url, String method, String body)
+    {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String productJson(String id, String name, String sellerId, String categoryId, Random random)
+    {
+        StringBuilder json = new StringBuilder("{");
+        if (id != null)
+        {
+            json.append("\"id\":\"").append(id).append("\",");
+        }
+        json.append("\"name\":\"").append(name.replace("\\", "\\\\").replace("\"", "\\\"")).append("\",")
+                .append("\"description\":\"Written by the mixed load test\",")
+                .append("\"price\":").append(1 + random.nextInt(999)).append(',');
+        if (sellerId != null)
+        {
+            json.append("\"seller\":{\"id\":\"").append(sellerId).append("\"},");
+        }
+        return json.append("\"fallIntoCategories\":[{\"id\":\"").append(categoryId).append("\"}]}").toString();
+    }
+
+    private static String encode(String value)
+    {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
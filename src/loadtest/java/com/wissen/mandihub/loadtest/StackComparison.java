@@ -0,0 +1,36 @@
+package com.wissen.mandihub.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the same read workload against the blocking (default profile) and the reactive ("reactive" profile)
+ * instances of the application and prints throughput and latency percentiles for both.
+ *
+ * Start the two instances first, for example:
+ *   java -jar mandihub.jar --server.port=8080
+ *   java -jar mandihub.jar --server.port=8081 --spring.profiles.active=reactive
+ *
+ * System properties: blockingUrl, reactiveUrl, concurrency, warmupSeconds, durationSeconds, paths (comma separated).
+ */
+public class StackComparison
+{
+    private static final String DEFAULT_PATHS = "/product/all/mongo,/seller/all/mongo,/category/all/mongo,/category/mongo?name=Kitchen";
+
+    public static void main(String[] args) throws Exception
+    {
+        String blockingUrl = System.getProperty("blockingUrl", "http://localhost:8080");
+        String reactiveUrl = System.getProperty("reactiveUrl", "http://localhost:8081");
+        int concurrency = Integer.getInteger("concurrency", 64);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("durationSeconds", 30));
+        List<String> paths = Arrays.asList(System.getProperty("paths", DEFAULT_PATHS).split(","));
+
+        LoadHarness harness = new LoadHarness(concurrency, warmup, duration);
+        System.out.println("concurrency=" + concurrency + " duration=" + duration.getSeconds() + "s paths=" + paths);
+        System.out.println("blocking  " + harness.run(blockingUrl, paths));
+        System.out.println("reactive  " + harness.run(reactiveUrl, paths));
+        System.exit(0);
+    }
+}
@@ -0,0 +1,37 @@
+package com.wissen.mandihub.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the same read workload against an instance on the Tomcat thread pool and an instance running
+ * every request on a virtual thread, with more concurrent clients than the pool has threads.
+ *
+ * Start the two instances on Java 21 first, for example:
+ *   java -jar mandihub.jar --server.port=8080
+ *   java -jar mandihub.jar --server.port=8082 --mandihub.virtual-threads.enabled=true
+ *
+ * System properties: platformUrl, virtualUrl, concurrency, warmupSeconds, durationSeconds, paths (comma separated).
+ */
+public class ThreadModelComparison
+{
+    private static final String DEFAULT_PATHS = "/product/all/mongo,/seller/all/mongo,/category/all/mongo,/category/mongo?name=Kitchen";
+
+    public static void main(String[] args) throws Exception
+    {
+        String platformUrl = System.getProperty("platformUrl", "http://localhost:8080");
+        String virtualUrl = System.getProperty("virtualUrl", "http://localhost:8082");
+        //Well above the 200 threads of the default Tomcat pool.
+        int concurrency = Integer.getInteger("concurrency", 1000);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("durationSeconds", 30));
+        List<String> paths = Arrays.asList(System.getProperty("paths", DEFAULT_PATHS).split(","));
+
+        LoadHarness harness = new LoadHarness(concurrency, warmup, duration);
+        System.out.println("concurrency=" + concurrency + " duration=" + duration.getSeconds() + "s paths=" + paths);
+        System.out.println("platform  " + harness.run(platformUrl, paths));
+        System.out.println("virtual   " + harness.run(virtualUrl, paths));
+        System.exit(0);
+    }
+}
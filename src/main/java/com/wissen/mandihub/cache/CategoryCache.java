@@ -0,0 +1,156 @@
+package com.wissen.mandihub.cache;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.repositories.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the id and name of every category, looked up by id or by name.
+ * Categories only change through CategoryService, which writes them through to this cache.
+ * The cached entries are shared, so callers must copy them before putting them in a document.
+ */
+@Component
+public class CategoryCache
+{
+    @Autowired
+    private CategoryRepository _categoryMongoRepository;
+
+    private final int maxSize;
+
+    private final LinkedHashMap<String, EmbeddedCategory> byId;
+
+    private final Map<String, String> idByName = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    //Incremented on every write-through so that a load which raced with a write doesn't cache stale data.
+    private long writeGeneration;
+
+    public CategoryCache(@Value("${mandihub.category-cache.max-size:1000}") int maxSize)
+    {
+        this.maxSize = maxSize;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EmbeddedCategory> eldest)
+            {
+                if (size() <= CategoryCache.this.maxSize)
+                {
+                    return false;
+                }
+                idByName.remove(eldest.getValue().getName(), eldest.getKey());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+
+    /**
+     * Returns the categories with the given ids which exist; ids that are not cached are loaded
+     * with one $in query.
+     */
+    public Map<String, EmbeddedCategory> getAllById(Collection<String> ids)
+    {
+        Map<String, EmbeddedCategory> found = new HashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        long generation;
+        synchronized (this)
+        {
+            generation = writeGeneration;
+            for (String id : ids)
+            {
+                EmbeddedCategory category = byId.get(id);
+                if (category != null)
+                {
+                    hits++;
+                    found.put(id, category);
+                }
+                else
+                {
+                    misses++;
+                    missingIds.add(id);
+                }
+            }
+        }
+        if (!missingIds.isEmpty())
+        {
+            for (Category category : _categoryMongoRepository.findAllById(missingIds))
+            {
+                found.put(category.getId(), load(category, generation));
+            }
+        }
+        return found;
+    }
+
+    public EmbeddedCategory getByName(String name)
+    {
+        long generation;
+        synchronized (this)
+        {
+            generation = writeGeneration;
+            String id = idByName.get(name);
+            EmbeddedCategory category = id == null ? null : byId.get(id);
+            if (category != null)
+            {
+                hits++;
+                return category;
+            }
+            misses++;
+        }
+        Category category = _categoryMongoRepository.findByName(name);
+        return category == null ? null : load(category, generation);
+    }
+
+    /**
+     * Write-through of a category which has just been saved in MongoDB.
+     */
+    public synchronized EmbeddedCategory put(Category category)
+    {
+        writeGeneration++;
+        return store(new EmbeddedCategory(category.getId(), category.getName()));
+    }
+
+    public synchronized void invalidate(String id)
+    {
+        writeGeneration++;
+        EmbeddedCategory previous = byId.remove(id);
+        if (previous != null)
+        {
+            idByName.remove(previous.getName(), id);
+        }
+    }
+
+    private synchronized EmbeddedCategory load(Category category, long generation)
+    {
+        EmbeddedCategory entry = new EmbeddedCategory(category.getId(), category.getName());
+        return generation == writeGeneration ? store(entry) : entry;
+    }
+
+    private EmbeddedCategory store(EmbeddedCategory entry)
+    {
+        EmbeddedCategory previous = byId.put(entry.getId(), entry);
+        if (previous != null)
+        {
+            idByName.remove(previous.getName(), previous.getId());
+        }
+        idByName.put(entry.getName(), entry.getId());
+        return entry;
+    }
+
+    public synchronized CategoryCacheStats stats()
+    {
+        return new CategoryCacheStats(hits, misses, evictions, byId.size(), maxSize);
+    }
+}
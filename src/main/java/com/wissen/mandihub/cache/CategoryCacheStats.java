@@ -0,0 +1,54 @@
+package com.wissen.mandihub.cache;
+
+public class CategoryCacheStats
+{
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final int size;
+
+    private final int maxSize;
+
+    public CategoryCacheStats(long hits, long misses, long evictions, int size, int maxSize)
+    {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public double getHitRatio()
+    {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,38 @@
+package com.wissen.mandihub.configurations;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import java.io.IOException;
+
+/**
+ * Serializes a lazy DBRef as the document it points to instead of the proxy's internals.
+ * Read paths should resolve references in bulk (see SellerReferenceResolver); this only makes sure
+ * a reference which slipped through still renders correctly.
+ */
+@JsonComponent
+public class LazyLoadingProxySerializer extends JsonSerializer<LazyLoadingProxy>
+{
+    @Override
+    public void serialize(LazyLoadingProxy proxy, JsonGenerator generator, SerializerProvider provider) throws IOException
+    {
+        Object target = proxy.getTarget();
+        if (target == null)
+        {
+            generator.writeNull();
+        }
+        else
+        {
+            provider.defaultSerializeValue(target, generator);
+        }
+    }
+
+    @Override
+    public Class<LazyLoadingProxy> handledType()
+    {
+        return LazyLoadingProxy.class;
+    }
+}
@@ -0,0 +1,52 @@
+package com.wissen.mandihub.configurations;
+
+import com.wissen.mandihub.metrics.MongoCommandMetrics;
+import com.wissen.mandihub.metrics.SlowOperationRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * Registers the MongoDB command metrics, and the slow operation recorder behind /admin/slow-operations,
+ * with the blocking and the reactive client.
+ * The HTTP metrics (http.server.requests) come from Spring Boot Actuator; their histograms are set up in
+ * application.properties and everything is scraped from /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig
+{
+    @Bean
+    public MongoCommandMetrics mongoCommandMetrics(MeterRegistry registry)
+    {
+        return new MongoCommandMetrics(registry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetrics mongoCommandMetrics)
+    {
+        return builder -> builder.addCommandListener(mongoCommandMetrics);
+    }
+
+    //The recorder explains through the client it listens to, so the database factory is looked up lazily.
+    @Bean
+    @ConditionalOnProperty(name = "mandihub.slow-operations.enabled", havingValue = "true", matchIfMissing = true)
+    public SlowOperationRecorder slowOperationRecorder(@Value("${mandihub.slow-operations.threshold-ms:100}") long thresholdMillis,
+                                                       @Value("${mandihub.slow-operations.capacity:100}") int capacity,
+                                                       @Value("${mandihub.slow-operations.explain:true}") boolean explain,
+                                                       ObjectProvider<MongoDatabaseFactory> databaseFactory)
+    {
+        return new SlowOperationRecorder(thresholdMillis, capacity, explain, databaseFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "mandihub.slow-operations.enabled", havingValue = "true", matchIfMissing = true)
+    public MongoClientSettingsBuilderCustomizer slowOperationRecorderCustomizer(SlowOperationRecorder slowOperationRecorder)
+    {
+        return builder -> builder.addCommandListener(slowOperationRecorder);
+    }
+}
@@ -0,0 +1,30 @@
+package com.wissen.mandihub.configurations;
+
+import com.wissen.mandihub.mongodb.codecs.CodecMappingMongoConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+@Configuration
+public class MongoConfig
+{
+    //Replaces the converter of the Spring Boot auto-configuration. With mandihub.mongo.codecs.enabled=false
+    //the models go through the reflective mapping again.
+    @Bean
+    public MappingMongoConverter mappingMongoConverter(MongoDatabaseFactory factory, MongoMappingContext context, MongoCustomConversions conversions,
+                                                       @Value("${mandihub.mongo.codecs.enabled:true}") boolean codecs)
+    {
+        DbRefResolver dbRefResolver = new DefaultDbRefResolver(factory);
+        MappingMongoConverter mappingConverter = codecs
+                ? new CodecMappingMongoConverter(dbRefResolver, context)
+                : new MappingMongoConverter(dbRefResolver, context);
+        mappingConverter.setCustomConversions(conversions);
+        return mappingConverter;
+    }
+}
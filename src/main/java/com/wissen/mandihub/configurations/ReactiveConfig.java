@@ -0,0 +1,35 @@
+package com.wissen.mandihub.configurations;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * The reactive stack, enabled by the "reactive" profile.
+ */
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoRepositories(basePackages = "com.wissen.mandihub.mongodb.reactive.repositories")
+public class ReactiveConfig
+{
+    //Tomcat is on the classpath as well; run WebFlux on Netty.
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory()
+    {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    //Share the converter of MongoTemplate: it maps Product.seller to an unresolved lazy proxy, which
+    //ReactiveSellerReferenceResolver replaces without blocking. The reactive default converter would
+    //fail on the DBRef instead.
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory, MappingMongoConverter mappingMongoConverter)
+    {
+        return new ReactiveMongoTemplate(reactiveMongoDatabaseFactory, mappingMongoConverter);
+    }
+}
@@ -0,0 +1,59 @@
+package com.wissen.mandihub.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the blocking controllers on virtual threads when {@code mandihub.virtual-threads.enabled} is true.
+ * Every request gets its own virtual thread instead of a thread of the Tomcat pool, so the number of
+ * in-flight MongoDB calls is bounded by the connection pool of the driver rather than by the number of
+ * platform threads. Needs Java 21 at runtime.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "mandihub.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer
+{
+    private final ExecutorService executor;
+
+    public VirtualThreadConfig()
+    {
+        if (!VirtualThreads.isAvailable())
+        {
+            throw new IllegalStateException("mandihub.virtual-threads.enabled is set but the application runs on Java "
+                    + Runtime.version().feature() + "; virtual threads need Java 21 or newer.");
+        }
+        this.executor = VirtualThreads.newPerTaskExecutor();
+    }
+
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer()
+    {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    //Blocking threads are cheap now, so the driver may open more connections than its default of 100.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer virtualThreadConnectionPoolCustomizer(@Value("${mandihub.virtual-threads.mongo-max-pool-size:500}") int maxPoolSize)
+    {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize));
+    }
+
+    //Async handlers, like the NDJSON exports, are written from a virtual thread as well.
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer)
+    {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+    }
+}
@@ -0,0 +1,56 @@
+package com.wissen.mandihub.configurations;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21.
+ * The project still compiles for Java 17, so the Java 21 API is looked up reflectively at runtime.
+ */
+public final class VirtualThreads
+{
+    private VirtualThreads()
+    {
+    }
+
+
+    public static boolean isAvailable()
+    {
+        return Runtime.version().feature() >= 21;
+    }
+
+    //Executors.newVirtualThreadPerTaskExecutor()
+    public static ExecutorService newPerTaskExecutor()
+    {
+        try
+        {
+            return (ExecutorService) java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw unavailable(e);
+        }
+    }
+
+    //Thread.ofVirtual().name(prefix, 0).factory()
+    public static ThreadFactory newThreadFactory(String prefix)
+    {
+        try
+        {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw unavailable(e);
+        }
+    }
+
+    private static IllegalStateException unavailable(Exception cause)
+    {
+        return new IllegalStateException("Virtual threads need Java 21 or newer, the application runs on Java " + Runtime.version().feature() + ".", cause);
+    }
+}
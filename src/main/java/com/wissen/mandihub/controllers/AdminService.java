@@ -0,0 +1,98 @@
+package com.wissen.mandihub.controllers;
+
+import com.wissen.mandihub.metrics.SlowOperationRecorder;
+import com.wissen.mandihub.mongodb.indexes.IndexManager;
+import com.wissen.mandihub.mongodb.indexes.IndexReport;
+import com.wissen.mandihub.mongodb.repositories.SellerRepository;
+import com.wissen.mandihub.mongodb.support.CategoryMembershipBackfill;
+import com.wissen.mandihub.mongodb.support.SellerProductCounts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/admin")
+public class AdminService
+{
+    @Autowired
+    private IndexManager _indexManager;
+    @Autowired(required = false)
+    private SlowOperationRecorder _slowOperationRecorder;
+    @Autowired
+    private SellerProductCounts _sellerProductCounts;
+    @Autowired
+    private SellerRepository _sellerMongoRepository;
+    @Autowired
+    private CategoryMembershipBackfill _categoryMembershipBackfill;
+
+
+    //----------MongoDB Indexes------------------
+    @GetMapping(path = "/indexes")
+    public IndexReport verifyIndexes()
+    {
+        return _indexManager.verifyIndexes();
+    }
+
+    @PostMapping(path = "/indexes")
+    public IndexReport ensureIndexes()
+    {
+        return _indexManager.ensureIndexes();
+    }
+
+
+    //----------Slow MongoDB Operations----------
+    @GetMapping(path = "/slow-operations")
+    public ResponseEntity<?> getSlowOperations(@RequestParam(value = "limit", defaultValue = "20") int limit)
+    {
+        if (_slowOperationRecorder == null)
+        {
+            return new ResponseEntity<>("Slow operations aren't recorded, set mandihub.slow-operations.enabled to record them.", HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(_slowOperationRecorder.recent(limit), HttpStatus.OK);
+    }
+
+    @DeleteMapping(path = "/slow-operations")
+    public ResponseEntity<String> clearSlowOperations()
+    {
+        if (_slowOperationRecorder == null)
+        {
+            return new ResponseEntity<>("Slow operations aren't recorded, set mandihub.slow-operations.enabled to record them.", HttpStatus.NOT_FOUND);
+        }
+        _slowOperationRecorder.clear();
+        return new ResponseEntity<>("The slow operations were cleared.", HttpStatus.OK);
+    }
+
+
+    //----------Seller Product Counters----------
+    //Recounts the products of one seller, or drops every counter so each is recounted on its next read.
+    @PostMapping(path = "/seller-product-counts")
+    public ResponseEntity<?> recountSellerProducts(@RequestParam(value = "sellerId", required = false) String sellerId)
+    {
+        if (sellerId == null)
+        {
+            _sellerProductCounts.invalidateAll();
+            return new ResponseEntity<>("The seller product counters were dropped, they are recounted on their next read.", HttpStatus.OK);
+        }
+        if (!_sellerMongoRepository.existsById(sellerId))
+        {
+            return new ResponseEntity<>("This seller doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(_sellerProductCounts.recount(sellerId), HttpStatus.OK);
+    }
+
+
+    //----------Category Memberships-------------
+    //Rebuilds category_products from the categories of every product, e.g. after restoring products from a backup.
+    @PostMapping(path = "/category-memberships")
+    public ResponseEntity<String> backfillCategoryMemberships()
+    {
+        long added = _categoryMembershipBackfill.backfill();
+        return new ResponseEntity<>(added + " category memberships were added.", HttpStatus.OK);
+    }
+}
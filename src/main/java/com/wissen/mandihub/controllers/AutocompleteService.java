@@ -0,0 +1,34 @@
+package com.wissen.mandihub.controllers;
+
+import com.wissen.mandihub.search.AutocompleteIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+//Served from the in-memory index in both stacks, MongoDB isn't queried.
+@RestController
+@ConditionalOnProperty(name = "mandihub.autocomplete.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping(path = "/autocomplete")
+public class AutocompleteService
+{
+    @Autowired
+    private AutocompleteIndex _autocompleteIndex;
+
+
+    //----------Complete Names-------------------
+    @GetMapping
+    public ResponseEntity<?> completeNames(@RequestParam(value = "q", defaultValue = "") String prefix,
+                                           @RequestParam(value = "limit", defaultValue = "10") int limit)
+    {
+        if (limit < 1)
+        {
+            return new ResponseEntity<>("The limit must be positive.", HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(_autocompleteIndex.complete(prefix, limit), HttpStatus.OK);
+    }
+}
@@ -1,9 +1,17 @@
 package com.wissen.mandihub.controllers;
 
-import com.mongodb.client.result.UpdateResult;
-
+import com.wissen.mandihub.cache.CategoryCache;
+import com.wissen.mandihub.cache.CategoryCacheStats;
+import com.wissen.mandihub.jobs.CategoryRenamePropagator;
+import com.wissen.mandihub.logging.EventLog;
 import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.CategoryRenameJob;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.support.CategoryMemberships;
+import com.wissen.mandihub.mongodb.support.ProductSummaries;
+import com.wissen.mandihub.search.CatalogChangeNotifier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -11,21 +19,28 @@ import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.validation.Valid;
 
-import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.repositories.CategoryRenameJobRepository;
 import com.wissen.mandihub.mongodb.repositories.CategoryRepository;
+import com.wissen.mandihub.pagination.KeysetPaginator;
+import com.wissen.mandihub.pagination.KeysetSort;
+import com.wissen.mandihub.streaming.NdjsonStreamer;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/category")
 public class CategoryService
 {
@@ -34,18 +49,34 @@ public class CategoryService
 
     @Autowired
     private CategoryRepository _categoryMongoRepository;
+    @Autowired
+    private CategoryRenameJobRepository _renameJobRepository;
+    @Autowired
+    private CategoryCache _categoryCache;
+    @Autowired
+    private CategoryRenamePropagator _categoryRenamePropagator;
+    @Autowired
+    private CategoryMemberships _categoryMemberships;
+    @Autowired
+    private KeysetPaginator _paginator;
+    @Autowired
+    private NdjsonStreamer _ndjsonStreamer;
+    @Autowired
+    private EventLog _eventLog;
+    @Autowired
+    private CatalogChangeNotifier _catalogChangeNotifier;
 
 
     //----------Retrieve Categories-------------
     @GetMapping(path = "/mongo")
-    public ResponseEntity<Category> getCategoryFromMongoDB(@RequestParam(value = "name") String name)
+    public ResponseEntity<EmbeddedCategory> getCategoryFromMongoDB(@RequestParam(value = "name") String name)
     {
-        Category categoryMongo = _categoryMongoRepository.findByName(name);
+        EmbeddedCategory categoryMongo = _categoryCache.getByName(name);
         if (categoryMongo != null)
         {
             return new ResponseEntity<>(categoryMongo, HttpStatus.OK);
         }
-        System.out.println("There isn't any Category in Mongodb database with name: " + name);
+        _eventLog.log("category-not-found", "name", name);
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
@@ -55,6 +86,79 @@ public class CategoryService
         return _categoryMongoRepository.findAll();
     }
 
+    @GetMapping(path = "/all/mongo", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCategoriesFromMongoDB(@RequestParam(value = "batchSize", required = false) Integer batchSize)
+    {
+        return _ndjsonStreamer.stream(Category.class, batchSize);
+    }
+
+    @GetMapping(path = "/page/mongo")
+    public ResponseEntity<?> getCategoriesPageFromMongoDB(@RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                          @RequestParam(value = "after", required = false) String after,
+                                                          @RequestParam(value = "size", required = false) Integer size)
+    {
+        KeysetSort<Category> keysetSort;
+        switch (sort)
+        {
+            case "id":
+                keysetSort = KeysetSort.byId(Category::getId);
+                break;
+            case "name":
+                keysetSort = KeysetSort.by("name", Category::getName, Category::getId);
+                break;
+            default:
+                return new ResponseEntity<>("Categories can only be sorted by id or name.", HttpStatus.BAD_REQUEST);
+        }
+        try
+        {
+            return new ResponseEntity<>(_paginator.page(Category.class, keysetSort, after, size), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/{id}/products")
+    public ResponseEntity<?> getProductsOfCategoryFromMongoDB(@PathVariable(value = "id") String id,
+                                                             @RequestParam(value = "after", required = false) String after,
+                                                             @RequestParam(value = "size", required = false) Integer size)
+    {
+        if (_categoryCache.getAllById(Collections.singletonList(id)).isEmpty())
+        {
+            return new ResponseEntity<>("This category doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
+        }
+        try
+        {
+            return new ResponseEntity<>(_categoryMemberships.productsOf(id, after, size), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+
+    @GetMapping(path = "/{id}/products", params = "fields")
+    public ResponseEntity<?> getProductSummariesOfCategoryFromMongoDB(@PathVariable(value = "id") String id,
+                                                                     @RequestParam(value = "fields") String fields,
+                                                                     @RequestParam(value = "after", required = false) String after,
+                                                                     @RequestParam(value = "size", required = false) Integer size)
+    {
+        if (_categoryCache.getAllById(Collections.singletonList(id)).isEmpty())
+        {
+            return new ResponseEntity<>("This category doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
+        }
+        try
+        {
+            return new ResponseEntity<>(_categoryMemberships.productSummariesOf(id, after, size, ProductSummaries.parseFields(fields)), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
 
     //----------Create a Category---------------
     @PostMapping(path = "/mongo")
@@ -65,42 +169,67 @@ public class CategoryService
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
         Category createdCategory = _categoryMongoRepository.save(category);
+        _categoryCache.put(createdCategory);
+        _catalogChangeNotifier.categorySaved(createdCategory);
         return new ResponseEntity<>(createdCategory, HttpStatus.OK);
     }
 
 
     //----------Update a Category---------------
     @PutMapping(path = "/mongo")
-    public ResponseEntity<String> updateCategoryInMongoDB(@Valid @RequestBody Category category)
+    public ResponseEntity<?> updateCategoryInMongoDB(@Valid @RequestBody Category category)
     {
         if (category == null || category.getId() == null || category.getName() == null || category.getName().trim().isEmpty())
         {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        Category categoryInDatabase = _categoryMongoRepository.findById(category.getId()).orElse(null);
-        if (categoryInDatabase == null)
-        {
-            return new ResponseEntity<>("This category doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
-        }
 
-        //Update the name of the category in MongoDB Database using mongoOperation.updateFirst
+        //Update the name of the category in MongoDB Database and get the previous name back in one round trip
         Update updateCat = new Update();
         updateCat.set("name", category.getName());
         Query queryCat = new Query(Criteria.where("_id").is(category.getId()));
-        UpdateResult updateResult = mongoTemplate.updateFirst(queryCat, updateCat, Category.class);
-        if (updateResult.getModifiedCount() == 1)
+        Category categoryInDatabase = mongoTemplate.findAndModify(queryCat, updateCat, Category.class);
+        if (categoryInDatabase == null)
+        {
+            return new ResponseEntity<>("This category doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
+        }
+        Category renamed = new Category(category.getId(), category.getName());
+        _categoryCache.put(renamed);
+        _catalogChangeNotifier.categorySaved(renamed);
+        if (category.getName().equals(categoryInDatabase.getName()))
         {
-            //After updating a category, all of the products which are in this category must be updated manually.
-            Query query = new Query();
-            query.addCriteria(Criteria.where("fallIntoCategories._id").is(categoryInDatabase.getId()));
-            Update update = new Update().set("fallIntoCategories.$.name", category.getName());
-            updateResult = mongoTemplate.updateMulti(query, update, Product.class);
             return new ResponseEntity<>("The category updated", HttpStatus.OK);
         }
-        else
+        //After updating a category, all of the products which are in this category must be updated too.
+        //This happens in the background; the returned job reports the progress.
+        CategoryRenameJob job = _categoryRenamePropagator.start(category.getId(), category.getName());
+        return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+    }
+
+
+    //----------Category Rename Propagation-----
+    @GetMapping(path = "/renames/{jobId}")
+    public ResponseEntity<?> getCategoryRenameJob(@PathVariable(value = "jobId") String jobId)
+    {
+        CategoryRenameJob job = _renameJobRepository.findById(jobId).orElse(null);
+        if (job == null)
         {
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>("There isn't any category rename with this id.", HttpStatus.NOT_FOUND);
         }
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/{id}/renames")
+    public List<CategoryRenameJob> getCategoryRenameJobs(@PathVariable(value = "id") String id)
+    {
+        return _renameJobRepository.findByCategoryIdOrderByCreatedAtDesc(id);
     }
 
+
+    //----------Category Cache Statistics-------
+    @GetMapping(path = "/cache/stats")
+    public CategoryCacheStats getCategoryCacheStats()
+    {
+        return _categoryCache.stats();
+    }
 }
@@ -0,0 +1,56 @@
+package com.wissen.mandihub.controllers;
+
+import com.wissen.mandihub.cache.CategoryCache;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Builds the categories a product falls into from the categories of a ProductService request.
+ * Categories come from the category cache; the ones which aren't cached are fetched with a single $in query.
+ */
+@Component
+@Profile("!reactive")
+class ProductCategories
+{
+    @Autowired
+    private CategoryCache _categoryCache;
+
+
+    //Returns null when every category exists, otherwise the BAD_REQUEST response to send back.
+    ResponseEntity<String> resolve(Set<EmbeddedCategory> requested, HashSet<EmbeddedCategory> categories)
+    {
+        Set<String> missingIds = new LinkedHashSet<>();
+        if (requested != null)
+        {
+            for (EmbeddedCategory embCat : requested)
+            {
+                if (embCat != null && embCat.getId() != null)
+                {
+                    missingIds.add(embCat.getId());
+                }
+            }
+        }
+        if (missingIds.isEmpty())
+        {
+            return new ResponseEntity<>("The product must belongs to at least one category!", HttpStatus.BAD_REQUEST);
+        }
+        for (EmbeddedCategory category : _categoryCache.getAllById(missingIds).values())
+        {
+            missingIds.remove(category.getId());
+            categories.add(new EmbeddedCategory(category.getId(), category.getName()));
+        }
+        if (!missingIds.isEmpty())
+        {
+            return new ResponseEntity<>("These categories which the product falls into, don't exist: " + String.join(", ", missingIds), HttpStatus.BAD_REQUEST);
+        }
+        return null;
+    }
+}
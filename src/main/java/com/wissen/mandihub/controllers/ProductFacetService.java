@@ -0,0 +1,47 @@
+package com.wissen.mandihub.controllers;
+
+import com.wissen.mandihub.search.FacetIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+//Served from the in-memory index in both stacks, MongoDB isn't queried.
+@RestController
+@ConditionalOnProperty(name = "mandihub.facets.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping(path = "/product")
+public class ProductFacetService
+{
+    @Autowired
+    private FacetIndex _facetIndex;
+
+
+    //----------Count Products by Facet----------
+    //category may be repeated (products in all of them), and so may price (products in any of the buckets).
+    @GetMapping(path = "/facets")
+    public ResponseEntity<?> countProductsByFacet(@RequestParam(value = "category", required = false) List<String> categoryIds,
+                                                  @RequestParam(value = "price", required = false) List<Integer> priceBuckets,
+                                                  @RequestParam(value = "limit", defaultValue = "20") int limit)
+    {
+        if (limit < 0)
+        {
+            return new ResponseEntity<>("The limit must not be negative.", HttpStatus.BAD_REQUEST);
+        }
+        try
+        {
+            return new ResponseEntity<>(_facetIndex.count(categoryIds == null ? Collections.emptyList() : categoryIds,
+                    priceBuckets == null ? Collections.emptyList() : priceBuckets, limit), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.wissen.mandihub.controllers;
+
+import com.wissen.mandihub.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+//Served from the in-memory index in both stacks, MongoDB isn't queried.
+@RestController
+@ConditionalOnProperty(name = "mandihub.search.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping(path = "/product")
+public class ProductSearchService
+{
+    @Autowired
+    private ProductSearchIndex _productSearchIndex;
+
+
+    //----------Search Products------------------
+    @GetMapping(path = "/search")
+    public ResponseEntity<?> searchProducts(@RequestParam(value = "q") String query,
+                                            @RequestParam(value = "page", defaultValue = "0") int page,
+                                            @RequestParam(value = "size", defaultValue = "20") int size)
+    {
+        try
+        {
+            return new ResponseEntity<>(_productSearchIndex.search(query, page, size), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
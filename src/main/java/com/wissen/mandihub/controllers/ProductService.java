@@ -1,18 +1,33 @@
 package com.wissen.mandihub.controllers;
 
-import com.mongodb.client.result.UpdateResult;
-
-import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.cache.CategoryCache;
+import com.wissen.mandihub.ingest.BulkIngestResult;
+import com.wissen.mandihub.ingest.ProductBulkIngester;
+import com.wissen.mandihub.logging.EventLog;
 import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
 import com.wissen.mandihub.mongodb.models.Product;
 import com.wissen.mandihub.mongodb.models.Seller;
-import com.wissen.mandihub.mongodb.repositories.CategoryRepository;
+import com.wissen.mandihub.mongodb.support.CategoryMemberships;
+import com.wissen.mandihub.mongodb.support.ProductSummaries;
+import com.wissen.mandihub.mongodb.support.SellerProductCounts;
+import com.wissen.mandihub.mongodb.support.SellerReferenceResolver;
+import com.wissen.mandihub.pagination.KeysetPage;
+import com.wissen.mandihub.pagination.KeysetPaginator;
+import com.wissen.mandihub.pagination.KeysetSort;
+import com.wissen.mandihub.search.CatalogChangeNotifier;
+import com.wissen.mandihub.search.PriceRange;
+import com.wissen.mandihub.search.PriceRangePage;
+import com.wissen.mandihub.search.ProductPriceIndex;
+import com.wissen.mandihub.streaming.NdjsonStreamer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,9 +36,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
@@ -33,6 +56,7 @@ import com.wissen.mandihub.mongodb.repositories.ProductRepository;
 import com.wissen.mandihub.mongodb.repositories.SellerRepository;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/product")
 public class ProductService
 {
@@ -44,19 +68,41 @@ public class ProductService
     @Autowired
     private SellerRepository _sellerMongoRepository;
     @Autowired
-    private CategoryRepository _categoryMongoRepository;
+    private CategoryCache _categoryCache;
+    @Autowired
+    private ProductCategories _productCategories;
+    @Autowired
+    private SellerReferenceResolver _sellerReferenceResolver;
+    @Autowired
+    private CategoryMemberships _categoryMemberships;
+    @Autowired
+    private ProductBulkIngester _productBulkIngester;
+    @Autowired
+    private KeysetPaginator _paginator;
+    @Autowired
+    private NdjsonStreamer _ndjsonStreamer;
+    @Autowired
+    private ProductSummaries _productSummaries;
+    @Autowired
+    private EventLog _eventLog;
+    @Autowired
+    private CatalogChangeNotifier _catalogChangeNotifier;
+    @Autowired(required = false)
+    private ProductPriceIndex _productPriceIndex;
+    @Autowired
+    private SellerProductCounts _sellerProductCounts;
 
 
     //----------Retrieve Products----------------
     @GetMapping(path = "/mongo")
     public ResponseEntity<Product> getProductFromMongoDB(@RequestParam(value = "name") String name)
     {
-        Product productMongo = _productMongoRepository.findByName(name);
+        Product productMongo = _sellerReferenceResolver.resolve(_productMongoRepository.findByName(name));
         if (productMongo != null)
         {
             return new ResponseEntity<>(productMongo, HttpStatus.OK);
         }
-        System.out.println("There isn't any Product in Mongodb database with name: " + name);
+        _eventLog.log("product-not-found", "name", name);
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
@@ -64,31 +110,184 @@ public class ProductService
     @GetMapping(path = "/all/mongo")
     public List<Product> getAllProductsFromMongoDB()
     {
-        return _productMongoRepository.findAll();
+        return _sellerReferenceResolver.resolve(_productMongoRepository.findAll());
     }
 
+    @GetMapping(path = "/all/mongo", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProductsFromMongoDB(@RequestParam(value = "batchSize", required = false) Integer batchSize)
+    {
+        return _ndjsonStreamer.stream(Product.class, batchSize, _sellerReferenceResolver::resolve);
+    }
 
-    //----------Create a Product-----------------
-    @PostMapping(path = "/mongo")
-    public ResponseEntity<?> addNewProductInMongoDB(@Valid @RequestBody Product product)
+    @GetMapping(path = "/page/mongo")
+    public ResponseEntity<?> getProductsPageFromMongoDB(@RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                        @RequestParam(value = "after", required = false) String after,
+                                                        @RequestParam(value = "size", required = false) Integer size)
+    {
+        KeysetSort<Product> keysetSort;
+        switch (sort)
+        {
+            case "id":
+                keysetSort = KeysetSort.byId(Product::getId);
+                break;
+            case "name":
+                keysetSort = KeysetSort.by("name", Product::getName, Product::getId);
+                break;
+            case "price":
+                keysetSort = KeysetSort.by("price", Product::getPrice, Product::getId);
+                break;
+            default:
+                return new ResponseEntity<>("Products can only be sorted by id, name or price.", HttpStatus.BAD_REQUEST);
+        }
+        try
+        {
+            KeysetPage<Product> page = _paginator.page(Product.class, keysetSort, after, size);
+            _sellerReferenceResolver.resolve(page.getItems());
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+
+    //----------Retrieve Product Summaries-------
+    //With a fields parameter (a comma separated list of ProductSummaries fields, or "summary") the lists are
+    //read as ProductSummary: only those fields are read from MongoDB and sellers aren't resolved.
+    @GetMapping(path = "/all/mongo", params = "fields")
+    public ResponseEntity<?> getAllProductSummariesFromMongoDB(@RequestParam(value = "fields") String fields)
     {
-        Seller seller;
-        HashSet<EmbeddedCategory> categories = new HashSet<>();
         try
         {
-            for (EmbeddedCategory embCat : product.getFallIntoCategories())
+            return new ResponseEntity<>(_productSummaries.findAll(ProductSummaries.parseFields(fields)), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/page/mongo", params = "fields")
+    public ResponseEntity<?> getProductSummariesPageFromMongoDB(@RequestParam(value = "fields") String fields,
+                                                                @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                @RequestParam(value = "after", required = false) String after,
+                                                                @RequestParam(value = "size", required = false) Integer size)
+    {
+        try
+        {
+            return new ResponseEntity<>(_productSummaries.page(sort, after, size, ProductSummaries.parseFields(fields)), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+
+    //----------Retrieve Products by Price-------
+    //The products of a category priced from min to max, found in the in-memory ProductPriceIndex; only the
+    //products of the page are read from MongoDB. sort is "price" (ascending) or "-price".
+    @GetMapping(path = "/mongo/range")
+    public ResponseEntity<?> getProductsInPriceRangeFromMongoDB(@RequestParam(value = "category") String category,
+                                                               @RequestParam(value = "min", required = false) Float min,
+                                                               @RequestParam(value = "max", required = false) Float max,
+                                                               @RequestParam(value = "sort", defaultValue = ProductPriceIndex.ASCENDING) String sort,
+                                                               @RequestParam(value = "after", required = false) String after,
+                                                               @RequestParam(value = "size", required = false) Integer size)
+    {
+        ResponseEntity<?> error = checkPriceRangeRequest(category, min, max);
+        if (error != null)
+        {
+            return error;
+        }
+        try
+        {
+            PriceRange range = priceRange(category, min, max, sort, after, size);
+            Map<String, Product> productsById = new HashMap<>();
+            for (Product product : _productMongoRepository.findAllById(range.getIds()))
+            {
+                productsById.put(product.getId(), product);
+            }
+            List<Product> products = new ArrayList<>(range.getIds().size());
+            for (String id : range.getIds())
             {
-                Category category = _categoryMongoRepository.findById(embCat.getId()).orElseThrow(EntityNotFoundException::new);
-                categories.add(new EmbeddedCategory(category.getId(), category.getName()));
+                Product product = productsById.get(id);
+                if (product != null)
+                {
+                    products.add(product);
+                }
             }
+            return new ResponseEntity<>(new PriceRangePage<>(_sellerReferenceResolver.resolve(products), range), HttpStatus.OK);
         }
-        catch (EntityNotFoundException e)
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/mongo/range", params = "fields")
+    public ResponseEntity<?> getProductSummariesInPriceRangeFromMongoDB(@RequestParam(value = "category") String category,
+                                                                       @RequestParam(value = "fields") String fields,
+                                                                       @RequestParam(value = "min", required = false) Float min,
+                                                                       @RequestParam(value = "max", required = false) Float max,
+                                                                       @RequestParam(value = "sort", defaultValue = ProductPriceIndex.ASCENDING) String sort,
+                                                                       @RequestParam(value = "after", required = false) String after,
+                                                                       @RequestParam(value = "size", required = false) Integer size)
+    {
+        ResponseEntity<?> error = checkPriceRangeRequest(category, min, max);
+        if (error != null)
+        {
+            return error;
+        }
+        try
+        {
+            Set<String> summaryFields = ProductSummaries.parseFields(fields);
+            PriceRange range = priceRange(category, min, max, sort, after, size);
+            return new ResponseEntity<>(new PriceRangePage<>(_productSummaries.findAllById(range.getIds(), summaryFields), range), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
         {
-            return new ResponseEntity<>("One of the categories which the product falls into, doesn't exists!", HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
-        if (categories.isEmpty())
+    }
+
+    private ResponseEntity<?> checkPriceRangeRequest(String category, Float min, Float max)
+    {
+        if (_productPriceIndex == null)
         {
-            return new ResponseEntity<>("The product must belongs to at least one category!", HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>("Products aren't indexed by price, set mandihub.price-index.enabled to index them.", HttpStatus.NOT_FOUND);
+        }
+        if (min != null && max != null && min > max)
+        {
+            return new ResponseEntity<>("The minimum price must not be above the maximum price.", HttpStatus.BAD_REQUEST);
+        }
+        if (_categoryCache.getAllById(Collections.singletonList(category)).isEmpty())
+        {
+            return new ResponseEntity<>("This category doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
+        }
+        return null;
+    }
+
+    private PriceRange priceRange(String category, Float min, Float max, String sort, String after, Integer size)
+    {
+        return _productPriceIndex.range(category,
+                min == null ? Float.NEGATIVE_INFINITY : min,
+                max == null ? Float.POSITIVE_INFINITY : max,
+                sort, after, KeysetPaginator.normalizeSize(size));
+    }
+
+
+    //----------Create a Product-----------------
+    @PostMapping(path = "/mongo")
+    public ResponseEntity<?> addNewProductInMongoDB(@Valid @RequestBody Product product)
+    {
+        Seller seller;
+        HashSet<EmbeddedCategory> categories = new HashSet<>();
+        ResponseEntity<String> categoriesError = _productCategories.resolve(product.getFallIntoCategories(), categories);
+        if (categoriesError != null)
+        {
+            return categoriesError;
         }
         try
         {
@@ -100,44 +299,47 @@ public class ProductService
         }
         Product productMongoDB = new Product(product.getName(), product.getDescription(), product.getPrice(), seller, categories);
         productMongoDB = _productMongoRepository.save(productMongoDB);
-        //add a reference to this product in appropriate categories
-        Update update = new Update();
-        update.addToSet("productsOfCategory", productMongoDB.getId());
+        //add this product to the appropriate categories
         List<String> catIds = productMongoDB.getFallIntoCategories().stream().map(EmbeddedCategory::getId).collect(Collectors.toList());
-        Query query = new Query().addCriteria(Criteria.where("_id").in(catIds));
-        UpdateResult updateResult = mongoTemplate.updateMulti(query, update, Category.class);
-        System.out.println("The new product added and " + updateResult.getModifiedCount() + " categories updated.");
+        int addedMemberships = _categoryMemberships.add(productMongoDB.getId(), catIds);
+        _sellerProductCounts.added(Collections.singletonList(productMongoDB));
+        _catalogChangeNotifier.productSaved(productMongoDB);
+        _eventLog.log("product-created", "productId", productMongoDB.getId(), "memberships", addedMemberships);
         return new ResponseEntity<>(productMongoDB, HttpStatus.OK);
     }
 
 
+    //----------Create Products in Bulk----------
+    @PostMapping(path = "/bulk/mongo", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkIngestResult addNewProductsInMongoDB(@RequestBody List<Product> products)
+    {
+        BulkIngestResult result = _productBulkIngester.ingest(products);
+        _eventLog.log("products-ingested", "created", result.getCreated(), "rejected", result.getRejected(), "failed", result.getFailed());
+        return result;
+    }
+
+    @PostMapping(path = "/bulk/mongo", consumes = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public BulkIngestResult addNewProductsInMongoDBFromNdjson(InputStream body) throws IOException
+    {
+        BulkIngestResult result = _productBulkIngester.ingestNdjson(body);
+        _eventLog.log("products-ingested", "created", result.getCreated(), "rejected", result.getRejected(), "failed", result.getFailed());
+        return result;
+    }
+
+
     //----------Update a Product-----------------
     @PutMapping(path = "/mongo")
-    public ResponseEntity<String> updateProductInMongoDB(@Valid @RequestBody Product product)
+    public ResponseEntity<?> updateProductInMongoDB(@Valid @RequestBody Product product)
     {
-        Product productInDatabase = _productMongoRepository.findById(product.getId()).orElse(null);
-        if (productInDatabase == null)
-        {
-            return new ResponseEntity<>("This product doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
-        }
         HashSet<EmbeddedCategory> categories = new HashSet<>();
-        try
-        {
-            for (EmbeddedCategory embCat : product.getFallIntoCategories())
-            {
-                Category category = _categoryMongoRepository.findById(embCat.getId()).orElseThrow(EntityNotFoundException::new);
-                categories.add(new EmbeddedCategory(category.getId(), category.getName()));
-            }
-        }
-        catch (EntityNotFoundException e)
+        ResponseEntity<String> categoriesError = _productCategories.resolve(product.getFallIntoCategories(), categories);
+        if (categoriesError != null)
         {
-            return new ResponseEntity<>("One of the categories which the product falls into, doesn't exists!", HttpStatus.BAD_REQUEST);
-        }
-        if (categories.isEmpty())
-        {
-            return new ResponseEntity<>("The product must belongs to at least one category!", HttpStatus.BAD_REQUEST);
+            return categoriesError;
         }
         //Update the product by setting each property of this product in a update query.
+        //findAndModify applies the update and returns the previous document in a single round trip: its categories
+        //tell which memberships changed, and the updated document is the previous one with the update applied.
         Update update = new Update();
         update.set("name", product.getName());
         update.set("description", product.getDescription());
@@ -145,17 +347,40 @@ public class ProductService
         update.set("image_URLs", product.getImage_URLs());
         update.set("fallIntoCategories", categories);
         Query query = new Query(Criteria.where("_id").is(product.getId()));
-        UpdateResult updateResult = mongoTemplate.updateFirst(query, update, Product.class);
-        if (updateResult.getModifiedCount() == 1)
+        Product productInDatabase = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Product.class);
+        if (productInDatabase == null)
         {
-            productInDatabase = _productMongoRepository.findById(product.getId()).get();
-            System.out.println("The \"" + productInDatabase.getName() + "\" product updated!");
-            return new ResponseEntity<>("The product updated", HttpStatus.OK);
+            return new ResponseEntity<>("This product doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
         }
-        else
+        Set<String> previousCategoryIds = categoryIdsOf(productInDatabase);
+        applyUpdate(productInDatabase, product, categories);
+        _categoryMemberships.update(productInDatabase.getId(), previousCategoryIds, categoryIdsOf(productInDatabase));
+        _catalogChangeNotifier.productSaved(productInDatabase);
+        _eventLog.log("product-updated", "productId", productInDatabase.getId(), "name", productInDatabase.getName());
+        return new ResponseEntity<>(_sellerReferenceResolver.resolve(productInDatabase), HttpStatus.OK);
+    }
+
+
+    //The fields set by the update of updateProductInMongoDB.
+    private static void applyUpdate(Product productInDatabase, Product product, HashSet<EmbeddedCategory> categories)
+    {
+        productInDatabase.setName(product.getName());
+        productInDatabase.setDescription(product.getDescription());
+        productInDatabase.setPrice(product.getPrice());
+        productInDatabase.setImage_URLs(product.getImage_URLs());
+        productInDatabase.setFallIntoCategories(categories);
+    }
+
+    private static Set<String> categoryIdsOf(Product product)
+    {
+        Set<String> ids = new HashSet<>();
+        if (product.getFallIntoCategories() != null)
         {
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            for (EmbeddedCategory category : product.getFallIntoCategories())
+            {
+                ids.add(category.getId());
+            }
         }
+        return ids;
     }
-
 }
@@ -1,9 +1,13 @@
 package com.wissen.mandihub.controllers;
 
-import com.mongodb.client.result.UpdateResult;
-
+import com.wissen.mandihub.logging.EventLog;
+import com.wissen.mandihub.mongodb.models.Product;
 import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.support.ProductSummaries;
+import com.wissen.mandihub.mongodb.support.SellerProductCounts;
+import com.wissen.mandihub.mongodb.support.SellerReferenceResolver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -11,22 +15,29 @@ import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
-import javax.persistence.EntityNotFoundException;
 import javax.validation.Valid;
 
 import com.wissen.mandihub.mongodb.models.Profile;
 import com.wissen.mandihub.mongodb.repositories.SellerRepository;
+import com.wissen.mandihub.pagination.CountedKeysetPage;
+import com.wissen.mandihub.pagination.KeysetPage;
+import com.wissen.mandihub.pagination.KeysetPaginator;
+import com.wissen.mandihub.pagination.KeysetSort;
+import com.wissen.mandihub.streaming.NdjsonStreamer;
 
 @RestController
+@org.springframework.context.annotation.Profile("!reactive")
 @RequestMapping(path = "/seller")
 public class SellerService
 {
@@ -35,6 +46,18 @@ public class SellerService
 
     @Autowired
     private SellerRepository _sellerMongoRepository;
+    @Autowired
+    private KeysetPaginator _paginator;
+    @Autowired
+    private NdjsonStreamer _ndjsonStreamer;
+    @Autowired
+    private EventLog _eventLog;
+    @Autowired
+    private SellerProductCounts _sellerProductCounts;
+    @Autowired
+    private SellerReferenceResolver _sellerReferenceResolver;
+    @Autowired
+    private ProductSummaries _productSummaries;
 
 
     //----------Retrieve Sellers----------------
@@ -44,7 +67,7 @@ public class SellerService
         List<Seller> sellers = _sellerMongoRepository.findByFirstName(firstName);
         if (sellers.size() > 0)
         {
-            System.out.println("There are " + sellers.size() + " sellers with first name " + firstName + " in MongoDB database.");
+            _eventLog.log("sellers-found", "firstName", firstName, "count", sellers.size());
             return new ResponseEntity<>(sellers, HttpStatus.OK);
         }
         return new ResponseEntity<>("There isn't any seller with this name in MongoDB.", HttpStatus.NOT_FOUND);
@@ -56,6 +79,72 @@ public class SellerService
         return _sellerMongoRepository.findAll();
     }
 
+    @GetMapping(path = "/all/mongo", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSellersFromMongoDB(@RequestParam(value = "batchSize", required = false) Integer batchSize)
+    {
+        return _ndjsonStreamer.stream(Seller.class, batchSize);
+    }
+
+    @GetMapping(path = "/page/mongo")
+    public ResponseEntity<?> getSellersPageFromMongoDB(@RequestParam(value = "after", required = false) String after,
+                                                       @RequestParam(value = "size", required = false) Integer size)
+    {
+        try
+        {
+            return new ResponseEntity<>(_paginator.page(Seller.class, KeysetSort.byId(Seller::getId), after, size), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+
+    //----------Retrieve the Products of a Seller----------------
+    //Pages in id order over the seller.$id index; the total is read from the seller's product counter.
+    @GetMapping(path = "/{id}/products")
+    public ResponseEntity<?> getSellerProductsFromMongoDB(@PathVariable("id") String id,
+                                                          @RequestParam(value = "after", required = false) String after,
+                                                          @RequestParam(value = "size", required = false) Integer size)
+    {
+        if (!_sellerMongoRepository.existsById(id))
+        {
+            return new ResponseEntity<>("This seller doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
+        }
+        try
+        {
+            Query query = new Query(Criteria.where("seller.$id").is(KeysetPaginator.toIdValue(id)));
+            KeysetPage<Product> page = _paginator.page(query, Product.class, KeysetSort.byId(Product::getId), after, size);
+            _sellerReferenceResolver.resolve(page.getItems());
+            return new ResponseEntity<>(new CountedKeysetPage<>(page, _sellerProductCounts.count(id)), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/{id}/products", params = "fields")
+    public ResponseEntity<?> getSellerProductSummariesFromMongoDB(@PathVariable("id") String id,
+                                                                  @RequestParam(value = "fields") String fields,
+                                                                  @RequestParam(value = "after", required = false) String after,
+                                                                  @RequestParam(value = "size", required = false) Integer size)
+    {
+        if (!_sellerMongoRepository.existsById(id))
+        {
+            return new ResponseEntity<>("This seller doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
+        }
+        try
+        {
+            return new ResponseEntity<>(new CountedKeysetPage<>(_productSummaries.pageOfSeller(id, after, size, ProductSummaries.parseFields(fields)),
+                    _sellerProductCounts.count(id)), HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
 
     //----------Create a Seller-----------------
     @PostMapping(path = "/mongo")
@@ -70,31 +159,24 @@ public class SellerService
 
     //----------Update a Seller-----------------
     @PutMapping(path = "/mongo")
-    public ResponseEntity<String> updateSellerInMongoDB(@Valid @RequestBody Seller seller) {
-        try {
-            Seller sellerInDatabase = _sellerMongoRepository.findById(seller.getId()).orElseThrow(EntityNotFoundException::new);
-            Update update = new Update();
-            update.set("accountId", seller.getAccountId());
-            update.set("profile.firstName", seller.getProfile().getFirstName());
-            update.set("profile.lastName", seller.getProfile().getLastName());
-            update.set("profile.website", seller.getProfile().getWebsite());
-            update.set("profile.birthday", seller.getProfile().getBirthday());
-            update.set("profile.address", seller.getProfile().getAddress());
-            update.set("profile.emailAddress", seller.getProfile().getEmailAddress());
-            update.set("profile.gender", seller.getProfile().getGender());
-
-            Query query = new Query(Criteria.where("_id").is(seller.getId()));
-            UpdateResult updateResult = mongoTemplate.updateFirst(query, update, Seller.class);
-            if (updateResult.getModifiedCount() == 1) {
-                sellerInDatabase = _sellerMongoRepository.findById(seller.getId()).orElseThrow(EntityNotFoundException::new);
-                System.out.println("__________________________________________________________________");
-                System.out.println("The document of " + sellerInDatabase.toString() + " updated");
-                return new ResponseEntity<>("The seller updated", HttpStatus.OK);
-            } else {
-                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-            }
-        } catch (EntityNotFoundException e) {
+    public ResponseEntity<?> updateSellerInMongoDB(@Valid @RequestBody Seller seller) {
+        Update update = new Update();
+        update.set("accountId", seller.getAccountId());
+        update.set("profile.firstName", seller.getProfile().getFirstName());
+        update.set("profile.lastName", seller.getProfile().getLastName());
+        update.set("profile.website", seller.getProfile().getWebsite());
+        update.set("profile.birthday", seller.getProfile().getBirthday());
+        update.set("profile.address", seller.getProfile().getAddress());
+        update.set("profile.emailAddress", seller.getProfile().getEmailAddress());
+        update.set("profile.gender", seller.getProfile().getGender());
+
+        //findAndModify applies the update and returns the updated document in a single round trip.
+        Query query = new Query(Criteria.where("_id").is(seller.getId()));
+        Seller sellerInDatabase = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Seller.class);
+        if (sellerInDatabase == null) {
             return new ResponseEntity<>("This seller doesn't exists in MongoDB.", HttpStatus.NOT_FOUND);
         }
+        _eventLog.log("seller-updated", "sellerId", sellerInDatabase.getId(), "accountId", sellerInDatabase.getAccountId());
+        return new ResponseEntity<>(sellerInDatabase, HttpStatus.OK);
     }
 }
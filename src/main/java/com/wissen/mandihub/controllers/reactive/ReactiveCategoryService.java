@@ -0,0 +1,107 @@
+package com.wissen.mandihub.controllers.reactive;
+
+import com.wissen.mandihub.cache.CategoryCache;
+import com.wissen.mandihub.jobs.CategoryRenamePropagator;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.reactive.repositories.ReactiveCategoryRepository;
+import com.wissen.mandihub.search.CatalogChangeNotifier;
+import com.wissen.mandihub.streaming.NdjsonStreamer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.Valid;
+
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/category")
+public class ReactiveCategoryService
+{
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private ReactiveCategoryRepository _categoryReactiveRepository;
+    @Autowired
+    private CategoryCache _categoryCache;
+    @Autowired
+    private CategoryRenamePropagator _categoryRenamePropagator;
+    @Autowired
+    private CatalogChangeNotifier _catalogChangeNotifier;
+
+
+    //----------Retrieve Categories-------------
+    @GetMapping(path = "/mongo")
+    public Mono<ResponseEntity<Category>> getCategoryFromMongoDB(@RequestParam(value = "name") String name)
+    {
+        return _categoryReactiveRepository.findByName(name)
+                .map(category -> new ResponseEntity<>(category, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping(path = "/all/mongo", produces = {"application/json", NdjsonStreamer.APPLICATION_NDJSON_VALUE})
+    public Flux<Category> getAllCategoriesFromMongoDB()
+    {
+        return _categoryReactiveRepository.findAll();
+    }
+
+
+    //----------Create a Category---------------
+    @PostMapping(path = "/mongo")
+    public Mono<ResponseEntity<Category>> addNewCategoryInMongoDB(@Valid @RequestBody Category category)
+    {
+        if (category == null || category.getName() == null || category.getName().trim().isEmpty())
+        {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return _categoryReactiveRepository.save(category).map(created ->
+        {
+            _categoryCache.put(created);
+            _catalogChangeNotifier.categorySaved(created);
+            return new ResponseEntity<>(created, HttpStatus.OK);
+        });
+    }
+
+
+    //----------Update a Category---------------
+    @PutMapping(path = "/mongo")
+    public Mono<ResponseEntity<Object>> updateCategoryInMongoDB(@Valid @RequestBody Category category)
+    {
+        if (category == null || category.getId() == null || category.getName() == null || category.getName().trim().isEmpty())
+        {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        Query queryCat = new Query(Criteria.where("_id").is(category.getId()));
+        return reactiveMongoTemplate.findAndModify(queryCat, new Update().set("name", category.getName()), Category.class)
+                .flatMap(previous ->
+                {
+                    Category renamed = new Category(category.getId(), category.getName());
+                    _categoryCache.put(renamed);
+                    _catalogChangeNotifier.categorySaved(renamed);
+                    if (category.getName().equals(previous.getName()))
+                    {
+                        return Mono.just(new ResponseEntity<Object>("The category updated", HttpStatus.OK));
+                    }
+                    //Starting the propagation job writes to MongoDB with the blocking driver.
+                    return Mono.fromCallable(() -> _categoryRenamePropagator.start(category.getId(), category.getName()))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .map(job -> new ResponseEntity<Object>(job, HttpStatus.ACCEPTED));
+                })
+                .defaultIfEmpty(new ResponseEntity<>("This category doesn't exists in MongoDB.", HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,192 @@
+package com.wissen.mandihub.controllers.reactive;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.reactive.repositories.ReactiveCategoryRepository;
+import com.wissen.mandihub.mongodb.reactive.repositories.ReactiveProductRepository;
+import com.wissen.mandihub.mongodb.reactive.repositories.ReactiveSellerRepository;
+import com.wissen.mandihub.mongodb.reactive.support.ReactiveCategoryMemberships;
+import com.wissen.mandihub.mongodb.reactive.support.ReactiveSellerProductCounts;
+import com.wissen.mandihub.mongodb.reactive.support.ReactiveSellerReferenceResolver;
+import com.wissen.mandihub.search.CatalogChangeNotifier;
+import com.wissen.mandihub.streaming.NdjsonStreamer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.validation.Valid;
+
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/product")
+public class ReactiveProductService
+{
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private ReactiveProductRepository _productReactiveRepository;
+    @Autowired
+    private ReactiveSellerRepository _sellerReactiveRepository;
+    @Autowired
+    private ReactiveCategoryRepository _categoryReactiveRepository;
+    @Autowired
+    private ReactiveSellerReferenceResolver _sellerReferenceResolver;
+    @Autowired
+    private ReactiveCategoryMemberships _categoryMemberships;
+    @Autowired
+    private CatalogChangeNotifier _catalogChangeNotifier;
+    @Autowired
+    private ReactiveSellerProductCounts _sellerProductCounts;
+
+
+    //----------Retrieve Products----------------
+    @GetMapping(path = "/mongo")
+    public Mono<ResponseEntity<Product>> getProductFromMongoDB(@RequestParam(value = "name") String name)
+    {
+        return _sellerReferenceResolver.resolve(_productReactiveRepository.findByName(name))
+                .map(product -> new ResponseEntity<>(product, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    //Serialized as a JSON array, or as NDJSON for Accept: application/x-ndjson, without buffering the collection.
+    @GetMapping(path = "/all/mongo", produces = {"application/json", NdjsonStreamer.APPLICATION_NDJSON_VALUE})
+    public Flux<Product> getAllProductsFromMongoDB()
+    {
+        return _sellerReferenceResolver.resolve(_productReactiveRepository.findAll());
+    }
+
+
+    //----------Create a Product-----------------
+    @PostMapping(path = "/mongo")
+    public Mono<ResponseEntity<?>> addNewProductInMongoDB(@Valid @RequestBody Product product)
+    {
+        Set<String> categoryIds = categoryIdsOf(product);
+        if (categoryIds.isEmpty())
+        {
+            return Mono.just(new ResponseEntity<>("The product must belongs to at least one category!", HttpStatus.BAD_REQUEST));
+        }
+        Mono<Optional<Seller>> seller = product.getSeller() == null || product.getSeller().getId() == null
+                ? Mono.just(Optional.empty())
+                : _sellerReactiveRepository.findById(product.getSeller().getId()).map(Optional::of).defaultIfEmpty(Optional.empty());
+        return Mono.zip(_categoryReactiveRepository.findAllById(categoryIds).collectList(), seller).flatMap(found ->
+        {
+            HashSet<EmbeddedCategory> categories = new HashSet<>();
+            ResponseEntity<?> categoriesError = toEmbeddedCategories(categoryIds, found.getT1(), categories);
+            if (categoriesError != null)
+            {
+                return Mono.just(categoriesError);
+            }
+            if (found.getT2().isEmpty())
+            {
+                return Mono.just(new ResponseEntity<>("The seller of this product doesn't exists in MongoDB!", HttpStatus.BAD_REQUEST));
+            }
+            Product productMongoDB = new Product(product.getName(), product.getDescription(), product.getPrice(), found.getT2().get(), categories);
+            return _productReactiveRepository.save(productMongoDB)
+                    .doOnNext(_catalogChangeNotifier::productSaved)
+                    .flatMap(saved -> _categoryMemberships.add(saved.getId(), categoryIds)
+                            .then(_sellerProductCounts.added(saved))
+                            .thenReturn(new ResponseEntity<>(saved, HttpStatus.OK)));
+        });
+    }
+
+
+    //----------Update a Product-----------------
+    @PutMapping(path = "/mongo")
+    public Mono<ResponseEntity<?>> updateProductInMongoDB(@Valid @RequestBody Product product)
+    {
+        Set<String> categoryIds = categoryIdsOf(product);
+        if (categoryIds.isEmpty())
+        {
+            return Mono.just(new ResponseEntity<>("The product must belongs to at least one category!", HttpStatus.BAD_REQUEST));
+        }
+        return _categoryReactiveRepository.findAllById(categoryIds).collectList().flatMap(found ->
+        {
+            HashSet<EmbeddedCategory> categories = new HashSet<>();
+            ResponseEntity<?> categoriesError = toEmbeddedCategories(categoryIds, found, categories);
+            if (categoriesError != null)
+            {
+                return Mono.just(categoriesError);
+            }
+            Update update = new Update();
+            update.set("name", product.getName());
+            update.set("description", product.getDescription());
+            update.set("price", product.getPrice());
+            update.set("image_URLs", product.getImage_URLs());
+            update.set("fallIntoCategories", categories);
+            Query query = new Query(Criteria.where("_id").is(product.getId()));
+            //The previous document tells which memberships changed; the updated one is built from it, not read back.
+            Mono<Product> updated = reactiveMongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Product.class)
+                    .flatMap(previous ->
+                    {
+                        Set<String> previousCategoryIds = categoryIdsOf(previous);
+                        previous.setName(product.getName());
+                        previous.setDescription(product.getDescription());
+                        previous.setPrice(product.getPrice());
+                        previous.setImage_URLs(product.getImage_URLs());
+                        previous.setFallIntoCategories(categories);
+                        return _categoryMemberships.update(previous.getId(), previousCategoryIds, categoryIds).thenReturn(previous);
+                    })
+                    .doOnNext(_catalogChangeNotifier::productSaved);
+            return _sellerReferenceResolver.resolve(updated)
+                    .map(saved -> new ResponseEntity<Object>(saved, HttpStatus.OK))
+                    .defaultIfEmpty(new ResponseEntity<>("This product doesn't exists in MongoDB.", HttpStatus.NOT_FOUND));
+        });
+    }
+
+
+    private static Set<String> categoryIdsOf(Product product)
+    {
+        Set<String> ids = new LinkedHashSet<>();
+        if (product.getFallIntoCategories() != null)
+        {
+            for (EmbeddedCategory embCat : product.getFallIntoCategories())
+            {
+                if (embCat != null && embCat.getId() != null)
+                {
+                    ids.add(embCat.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static ResponseEntity<?> toEmbeddedCategories(Set<String> categoryIds, List<Category> found, HashSet<EmbeddedCategory> categories)
+    {
+        List<String> missingIds = new ArrayList<>(categoryIds);
+        for (Category category : found)
+        {
+            missingIds.remove(category.getId());
+            categories.add(new EmbeddedCategory(category.getId(), category.getName()));
+        }
+        if (!missingIds.isEmpty())
+        {
+            return new ResponseEntity<>("These categories which the product falls into, don't exist: " + String.join(", ", missingIds), HttpStatus.BAD_REQUEST);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.wissen.mandihub.controllers.reactive;
+
+import com.wissen.mandihub.mongodb.models.Profile;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.reactive.repositories.ReactiveSellerRepository;
+import com.wissen.mandihub.streaming.NdjsonStreamer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@RestController
+@org.springframework.context.annotation.Profile("reactive")
+@RequestMapping(path = "/seller")
+public class ReactiveSellerService
+{
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private ReactiveSellerRepository _sellerReactiveRepository;
+
+
+    //----------Retrieve Sellers----------------
+    @GetMapping(path = "/mongo")
+    public Mono<ResponseEntity<?>> getSellersFromMongoDB(@RequestParam(value = "firstName") String firstName)
+    {
+        return _sellerReactiveRepository.findByFirstName(firstName).collectList().map(sellers -> sellers.isEmpty()
+                ? new ResponseEntity<>("There isn't any seller with this name in MongoDB.", HttpStatus.NOT_FOUND)
+                : new ResponseEntity<>(sellers, HttpStatus.OK));
+    }
+
+    @GetMapping(path = "/all/mongo", produces = {"application/json", NdjsonStreamer.APPLICATION_NDJSON_VALUE})
+    public Flux<Seller> getAllSellersFromMongoDB()
+    {
+        return _sellerReactiveRepository.findAll();
+    }
+
+
+    //----------Create a Seller-----------------
+    @PostMapping(path = "/mongo")
+    public Mono<ResponseEntity<Seller>> addNewSellerInMongoDB(@Valid @RequestBody Seller seller)
+    {
+        Profile profile = new Profile(seller.getProfile().getFirstName(), seller.getProfile().getLastName(), seller.getProfile().getGender());
+        return _sellerReactiveRepository.save(new Seller(seller.getAccountId(), profile)).map(created -> new ResponseEntity<>(created, HttpStatus.OK));
+    }
+
+
+    //----------Update a Seller-----------------
+    @PutMapping(path = "/mongo")
+    public Mono<ResponseEntity<Object>> updateSellerInMongoDB(@Valid @RequestBody Seller seller)
+    {
+        Update update = new Update();
+        update.set("accountId", seller.getAccountId());
+        update.set("profile.firstName", seller.getProfile().getFirstName());
+        update.set("profile.lastName", seller.getProfile().getLastName());
+        update.set("profile.website", seller.getProfile().getWebsite());
+        update.set("profile.birthday", seller.getProfile().getBirthday());
+        update.set("profile.address", seller.getProfile().getAddress());
+        update.set("profile.emailAddress", seller.getProfile().getEmailAddress());
+        update.set("profile.gender", seller.getProfile().getGender());
+        Query query = new Query(Criteria.where("_id").is(seller.getId()));
+        return reactiveMongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Seller.class)
+                .map(updated -> new ResponseEntity<Object>(updated, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>("This seller doesn't exists in MongoDB.", HttpStatus.NOT_FOUND));
+    }
+}
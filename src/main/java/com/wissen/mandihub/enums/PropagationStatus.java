@@ -0,0 +1,10 @@
+package com.wissen.mandihub.enums;
+
+public enum PropagationStatus
+{
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    SUPERSEDED,
+    FAILED;
+}
@@ -0,0 +1,51 @@
+package com.wissen.mandihub.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResult
+{
+    private int created;
+
+    private int rejected;
+
+    private int failed;
+
+    private List<BulkItemResult> items = new ArrayList<>();
+
+    public void add(BulkItemResult item)
+    {
+        switch (item.getStatus())
+        {
+            case CREATED:
+                created++;
+                break;
+            case REJECTED:
+                rejected++;
+                break;
+            default:
+                failed++;
+        }
+        items.add(item);
+    }
+
+    public int getCreated()
+    {
+        return created;
+    }
+
+    public int getRejected()
+    {
+        return rejected;
+    }
+
+    public int getFailed()
+    {
+        return failed;
+    }
+
+    public List<BulkItemResult> getItems()
+    {
+        return items;
+    }
+}
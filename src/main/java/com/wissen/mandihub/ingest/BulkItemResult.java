@@ -0,0 +1,71 @@
+package com.wissen.mandihub.ingest;
+
+public class BulkItemResult
+{
+    public enum Status
+    {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    private int index;
+
+    private Status status;
+
+    private String id;
+
+    private String message;
+
+    public BulkItemResult()
+    {
+    }
+
+    public BulkItemResult(int index, Status status, String id, String message)
+    {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    public void setIndex(int index)
+    {
+        this.index = index;
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(Status status)
+    {
+        this.status = status;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    public String getMessage()
+    {
+        return message;
+    }
+
+    public void setMessage(String message)
+    {
+        this.message = message;
+    }
+}
@@ -0,0 +1,263 @@
+package com.wissen.mandihub.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import com.wissen.mandihub.cache.CategoryCache;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.repositories.SellerRepository;
+import com.wissen.mandihub.mongodb.support.CategoryMemberships;
+import com.wissen.mandihub.mongodb.support.SellerProductCounts;
+import com.wissen.mandihub.search.CatalogChangeNotifier;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates products in batches. Every batch costs a fixed number of round trips however many
+ * products it holds: one lookup of its sellers, at most one lookup of its categories, one
+ * unordered bulk insert and one bulk write of the category memberships.
+ */
+@Component
+public class ProductBulkIngester
+{
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SellerRepository _sellerMongoRepository;
+    @Autowired
+    private CategoryCache _categoryCache;
+    @Autowired
+    private CategoryMemberships _categoryMemberships;
+    @Autowired
+    private ObjectMapper _objectMapper;
+    @Autowired
+    private CatalogChangeNotifier _catalogChangeNotifier;
+    @Autowired
+    private SellerProductCounts _sellerProductCounts;
+
+    private final int batchSize;
+
+    public ProductBulkIngester(@Value("${mandihub.bulk-ingest.batch-size:1000}") int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+
+    public BulkIngestResult ingest(List<Product> products)
+    {
+        BulkIngestResult result = new BulkIngestResult();
+        for (int from = 0; from < products.size(); from += batchSize)
+        {
+            List<Product> batch = products.subList(from, Math.min(from + batchSize, products.size()));
+            ingestBatch(batch, from, Collections.emptyMap(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Reads one product per line and ingests them batch by batch while the upload is still arriving,
+     * so only one batch is held in memory. A line which isn't a valid product is rejected on its own.
+     */
+    public BulkIngestResult ingestNdjson(InputStream inputStream) throws IOException
+    {
+        BulkIngestResult result = new BulkIngestResult();
+        ObjectReader productReader = _objectMapper.readerFor(Product.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        List<Product> batch = new ArrayList<>(batchSize);
+        Map<Integer, String> malformed = new HashMap<>();
+        int index = 0;
+        int batchStart = 0;
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            if (line.isBlank())
+            {
+                continue;
+            }
+            try
+            {
+                batch.add(productReader.readValue(line));
+            }
+            catch (JsonProcessingException e)
+            {
+                batch.add(null);
+                malformed.put(index, "Malformed product: " + e.getOriginalMessage());
+            }
+            index++;
+            if (batch.size() == batchSize)
+            {
+                ingestBatch(batch, batchStart, malformed, result);
+                batch.clear();
+                malformed.clear();
+                batchStart = index;
+            }
+        }
+        ingestBatch(batch, batchStart, malformed, result);
+        return result;
+    }
+
+    private void ingestBatch(List<Product> batch, int firstIndex, Map<Integer, String> malformed, BulkIngestResult result)
+    {
+        if (batch.isEmpty())
+        {
+            return;
+        }
+        //Look up every seller and category referenced by the batch once.
+        Set<String> sellerIds = new HashSet<>();
+        Set<String> categoryIds = new HashSet<>();
+        for (Product product : batch)
+        {
+            if (product == null)
+            {
+                continue;
+            }
+            if (product.getSeller() != null && product.getSeller().getId() != null)
+            {
+                sellerIds.add(product.getSeller().getId());
+            }
+            for (String categoryId : categoryIdsOf(product))
+            {
+                categoryIds.add(categoryId);
+            }
+        }
+        Map<String, Seller> sellers = new HashMap<>();
+        for (Seller seller : _sellerMongoRepository.findAllById(sellerIds))
+        {
+            sellers.put(seller.getId(), seller);
+        }
+        Map<String, EmbeddedCategory> categories = _categoryCache.getAllById(categoryIds);
+
+        BulkItemResult[] items = new BulkItemResult[batch.size()];
+        List<Product> toInsert = new ArrayList<>();
+        List<Integer> insertedPositions = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++)
+        {
+            int index = firstIndex + i;
+            Product product = batch.get(i);
+            if (product == null)
+            {
+                items[i] = new BulkItemResult(index, BulkItemResult.Status.REJECTED, null, malformed.get(index));
+                continue;
+            }
+            String rejection = null;
+            HashSet<EmbeddedCategory> productCategories = new HashSet<>();
+            for (String categoryId : categoryIdsOf(product))
+            {
+                EmbeddedCategory category = categories.get(categoryId);
+                if (category == null)
+                {
+                    rejection = "The category " + categoryId + " which the product falls into, doesn't exists!";
+                    break;
+                }
+                productCategories.add(new EmbeddedCategory(category.getId(), category.getName()));
+            }
+            if (rejection == null && productCategories.isEmpty())
+            {
+                rejection = "The product must belongs to at least one category!";
+            }
+            Seller seller = product.getSeller() == null ? null : sellers.get(product.getSeller().getId());
+            if (rejection == null && seller == null)
+            {
+                rejection = "The seller of this product doesn't exists in MongoDB!";
+            }
+            if (rejection != null)
+            {
+                items[i] = new BulkItemResult(index, BulkItemResult.Status.REJECTED, null, rejection);
+                continue;
+            }
+            Product productMongoDB = new Product(product.getName(), product.getDescription(), product.getPrice(), seller, productCategories);
+            if (product.getImage_URLs() != null)
+            {
+                productMongoDB.setImage_URLs(product.getImage_URLs());
+            }
+            //Assign the ids up front, so the results and the memberships don't depend on the insert order.
+            productMongoDB.setId(new ObjectId().toHexString());
+            toInsert.add(productMongoDB);
+            insertedPositions.add(i);
+            items[i] = new BulkItemResult(index, BulkItemResult.Status.CREATED, productMongoDB.getId(), null);
+        }
+
+        if (!toInsert.isEmpty())
+        {
+            Set<Integer> failedInserts = insert(toInsert, insertedPositions, items);
+            Map<String, List<String>> memberships = new LinkedHashMap<>();
+            List<Product> inserted = new ArrayList<>(toInsert.size());
+            for (int j = 0; j < toInsert.size(); j++)
+            {
+                if (!failedInserts.contains(j))
+                {
+                    memberships.put(toInsert.get(j).getId(), categoryIdsOf(toInsert.get(j)));
+                    inserted.add(toInsert.get(j));
+                }
+            }
+            _categoryMemberships.addAll(memberships);
+            _sellerProductCounts.added(inserted);
+            _catalogChangeNotifier.productsSaved(inserted);
+        }
+        for (BulkItemResult item : items)
+        {
+            result.add(item);
+        }
+    }
+
+    //Returns the positions in toInsert of the products which couldn't be written.
+    private Set<Integer> insert(List<Product> toInsert, List<Integer> insertedPositions, BulkItemResult[] items)
+    {
+        Set<Integer> failed = new HashSet<>();
+        try
+        {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class).insert(toInsert).execute();
+        }
+        catch (BulkOperationException e)
+        {
+            for (BulkWriteError error : e.getErrors())
+            {
+                failed.add(error.getIndex());
+                BulkItemResult item = items[insertedPositions.get(error.getIndex())];
+                item.setStatus(BulkItemResult.Status.FAILED);
+                item.setId(null);
+                item.setMessage(error.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    private static List<String> categoryIdsOf(Product product)
+    {
+        List<String> ids = new ArrayList<>();
+        if (product.getFallIntoCategories() != null)
+        {
+            for (EmbeddedCategory category : product.getFallIntoCategories())
+            {
+                if (category != null && category.getId() != null && !ids.contains(category.getId()))
+                {
+                    ids.add(category.getId());
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,207 @@
+package com.wissen.mandihub.jobs;
+
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.client.result.UpdateResult;
+import com.wissen.mandihub.configurations.VirtualThreads;
+import com.wissen.mandihub.enums.PropagationStatus;
+import com.wissen.mandihub.mongodb.models.CategoryRenameJob;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.repositories.CategoryRenameJobRepository;
+import com.wissen.mandihub.mongodb.support.CategoryMemberships;
+import com.wissen.mandihub.pagination.KeysetPaginator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Copies the new name of a renamed category into the products of the category in the background.
+ * Products are updated in chunks of {@code mandihub.category-rename.chunk-size}, with a pause between
+ * chunks so the fan-out doesn't starve regular writes. The job records a checkpoint after every chunk,
+ * and unfinished jobs are resumed from their checkpoint when the application starts.
+ */
+@Component
+public class CategoryRenamePropagator
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CategoryRenamePropagator.class);
+
+    private static final List<PropagationStatus> ACTIVE = Arrays.asList(PropagationStatus.PENDING, PropagationStatus.RUNNING);
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryRenameJobRepository _renameJobRepository;
+    @Autowired
+    private CategoryMemberships _categoryMemberships;
+
+    private final int chunkSize;
+
+    private final long pauseMillis;
+
+    //One job at a time, which also bounds the write load of the fan-out.
+    private final ExecutorService executor;
+
+    public CategoryRenamePropagator(@Value("${mandihub.category-rename.chunk-size:500}") int chunkSize,
+                                    @Value("${mandihub.category-rename.pause-ms:50}") long pauseMillis,
+                                    @Value("${mandihub.virtual-threads.enabled:false}") boolean virtualThreads)
+    {
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        ThreadFactory threadFactory = virtualThreads ? VirtualThreads.newThreadFactory("category-rename-") : runnable ->
+        {
+            Thread thread = new Thread(runnable, "category-rename");
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+
+    public CategoryRenameJob start(String categoryId, String newName)
+    {
+        //A newer rename of the same category makes the older ones pointless.
+        Query olderJobs = new Query(Criteria.where("categoryId").is(categoryId).and("status").in(ACTIVE));
+        mongoTemplate.updateMulti(olderJobs, new Update().set("status", PropagationStatus.SUPERSEDED).set("updatedAt", new Date()), CategoryRenameJob.class);
+        CategoryRenameJob job = _renameJobRepository.save(new CategoryRenameJob(categoryId, newName));
+        executor.execute(() -> run(job.getId()));
+        return job;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs()
+    {
+        for (CategoryRenameJob job : _renameJobRepository.findByStatusInOrderByCreatedAtAsc(ACTIVE))
+        {
+            LOGGER.info("Resuming the propagation of the new name of category {} after product {}", job.getCategoryId(), job.getLastProductId());
+            executor.execute(() -> run(job.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        //An interrupted job stays RUNNING and is resumed from its checkpoint on the next start.
+        executor.shutdownNow();
+    }
+
+    private void run(String jobId)
+    {
+        CategoryRenameJob job = _renameJobRepository.findById(jobId).orElse(null);
+        if (job == null || !ACTIVE.contains(job.getStatus()))
+        {
+            return;
+        }
+        try
+        {
+            Update running = new Update()
+                    .set("status", PropagationStatus.RUNNING)
+                    .set("totalProducts", _categoryMemberships.count(job.getCategoryId()))
+                    .set("updatedAt", new Date());
+            if (mongoTemplate.updateFirst(activeJob(jobId), running, CategoryRenameJob.class).getMatchedCount() == 0)
+            {
+                return;
+            }
+            String lastProductId = job.getLastProductId();
+            while (true)
+            {
+                List<String> productIds = nextChunk(job.getCategoryId(), lastProductId);
+                if (productIds.isEmpty())
+                {
+                    break;
+                }
+                Query query = new Query(Criteria.where("_id").in(productIds).and("fallIntoCategories._id").is(job.getCategoryId()));
+                Update update = new Update().set("fallIntoCategories.$.name", job.getNewName());
+                UpdateResult updateResult = mongoTemplate.updateMulti(query, update, Product.class);
+                lastProductId = productIds.get(productIds.size() - 1);
+
+                //The checkpoint only matches while the job is still active, so a superseded job stops here.
+                Update checkpoint = new Update()
+                        .set("lastProductId", lastProductId)
+                        .inc("updatedProducts", updateResult.getModifiedCount())
+                        .set("updatedAt", new Date());
+                if (mongoTemplate.updateFirst(activeJob(jobId), checkpoint, CategoryRenameJob.class).getMatchedCount() == 0)
+                {
+                    return;
+                }
+                if (productIds.size() < chunkSize)
+                {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+            Update completed = new Update().set("status", PropagationStatus.COMPLETED).set("updatedAt", new Date());
+            mongoTemplate.updateFirst(activeJob(jobId), completed, CategoryRenameJob.class);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (RuntimeException e)
+        {
+            //An interrupt during a driver call surfaces as a MongoInterruptedException. The job was stopped by the
+            //shutdown rather than failed, so it stays RUNNING and is resumed on the next start.
+            if (Thread.currentThread().isInterrupted() || executor.isShutdown() || isInterruption(e))
+            {
+                LOGGER.info("The propagation of the new name of category {} was interrupted, it resumes from its checkpoint on the next start", job.getCategoryId());
+                Thread.currentThread().interrupt();
+                return;
+            }
+            LOGGER.error("The propagation of the new name of category " + job.getCategoryId() + " failed", e);
+            Update failed = new Update().set("status", PropagationStatus.FAILED).set("error", e.getMessage()).set("updatedAt", new Date());
+            mongoTemplate.updateFirst(activeJob(jobId), failed, CategoryRenameJob.class);
+        }
+    }
+
+    private List<String> nextChunk(String categoryId, String lastProductId)
+    {
+        Query query = new Query(Criteria.where("fallIntoCategories._id").is(categoryId));
+        if (lastProductId != null)
+        {
+            query.addCriteria(Criteria.where("_id").gt(KeysetPaginator.toIdValue(lastProductId)));
+        }
+        query.fields().include("_id");
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(chunkSize);
+        List<String> ids = new ArrayList<>(chunkSize);
+        for (Product product : mongoTemplate.find(query, Product.class))
+        {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+
+    //MongoTemplate may wrap the driver's exception in one of its DataAccessExceptions.
+    private static boolean isInterruption(Throwable e)
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof MongoInterruptedException || cause instanceof InterruptedException)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Query activeJob(String jobId)
+    {
+        return new Query(Criteria.where("_id").is(jobId).and("status").in(ACTIVE));
+    }
+}
@@ -0,0 +1,87 @@
+package com.wissen.mandihub.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs what the request handlers did as one logfmt line per event (event=product-updated productId=...),
+ * through the "mandihub.events" logger.
+ * Each event is sampled with its own rate, mandihub.event-log.sample-rate.&lt;event&gt;, falling back to
+ * mandihub.event-log.default-sample-rate; a sampled line carries its rate, so counts can be scaled back up.
+ * Events which aren't sampled cost a random number and nothing else. The logger appends asynchronously
+ * (see logback-spring.xml), so handlers never wait for the console; the other loggers stay synchronous.
+ */
+@Component
+public class EventLog
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger("mandihub.events");
+
+    private final double defaultSampleRate;
+    private final Map<String, Double> sampleRates;
+
+    public EventLog(@Value("${mandihub.event-log.default-sample-rate:1.0}") double defaultSampleRate, Environment environment)
+    {
+        this.defaultSampleRate = defaultSampleRate;
+        this.sampleRates = Binder.get(environment).bind("mandihub.event-log.sample-rate", Bindable.mapOf(String.class, Double.class)).orElse(Map.of());
+    }
+
+
+    /**
+     * Logs the event with its fields, given as alternating names and values, if it is sampled.
+     */
+    public void log(String event, Object... fields)
+    {
+        double sampleRate = sampleRates.getOrDefault(event, defaultSampleRate);
+        if (sampleRate <= 0 || !LOGGER.isInfoEnabled() || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate))
+        {
+            return;
+        }
+        StringBuilder line = new StringBuilder("event=").append(event);
+        for (int i = 0; i + 1 < fields.length; i += 2)
+        {
+            line.append(' ').append(fields[i]).append('=');
+            appendValue(line, fields[i + 1]);
+        }
+        if (sampleRate < 1)
+        {
+            line.append(" sampleRate=").append(sampleRate);
+        }
+        LOGGER.info(line.toString());
+    }
+
+    //Values with spaces, quotes or equal signs are quoted, as logfmt expects.
+    private static void appendValue(StringBuilder line, Object value)
+    {
+        String text = String.valueOf(value);
+        boolean quote = text.isEmpty();
+        for (int i = 0; i < text.length() && !quote; i++)
+        {
+            char c = text.charAt(i);
+            quote = c <= ' ' || c == '"' || c == '=';
+        }
+        if (!quote)
+        {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\')
+            {
+                line.append('\\');
+            }
+            line.append(c == '\n' ? ' ' : c);
+        }
+        line.append('"');
+    }
+}
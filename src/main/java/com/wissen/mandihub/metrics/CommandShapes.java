@@ -0,0 +1,98 @@
+package com.wissen.mandihub.metrics;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Turns MongoDB commands into their shape, with every value that may come from a user replaced by "?",
+ * and into the command to explain.
+ */
+class CommandShapes
+{
+    static final BsonString REDACTED = new BsonString("?");
+
+    //Set by the driver for the session, the cluster or the transaction; not part of the operation.
+    private static final Set<String> DRIVER_FIELDS = new HashSet<>(Arrays.asList(
+            "$db", "lsid", "$clusterTime", "txnNumber", "autocommit", "startTransaction", "$readPreference", "signature"));
+
+    //Values which describe the operation rather than the data, kept as they are.
+    private static final Set<String> STRUCTURAL_FIELDS = new HashSet<>(Arrays.asList(
+            "sort", "projection", "fields", "hint", "limit", "skip", "batchSize", "singleBatch", "multi", "upsert",
+            "new", "remove", "ordered", "collection", "cursor"));
+
+    private CommandShapes()
+    {
+    }
+
+
+    static BsonDocument shapeOf(String commandName, BsonDocument command)
+    {
+        BsonDocument shape = new BsonDocument();
+        for (String key : command.keySet())
+        {
+            if (DRIVER_FIELDS.contains(key))
+            {
+                continue;
+            }
+            BsonValue value = command.get(key);
+            shape.put(key, key.equals(commandName) || STRUCTURAL_FIELDS.contains(key) ? value : redact(value));
+        }
+        return shape;
+    }
+
+    //Keeps keys and operators; an array keeps the shape of its first element only.
+    private static BsonValue redact(BsonValue value)
+    {
+        if (value.isDocument())
+        {
+            BsonDocument redacted = new BsonDocument();
+            for (String key : value.asDocument().keySet())
+            {
+                BsonValue field = value.asDocument().get(key);
+                redacted.put(key, STRUCTURAL_FIELDS.contains(key) ? field : redact(field));
+            }
+            return redacted;
+        }
+        if (value.isArray())
+        {
+            BsonArray redacted = new BsonArray();
+            if (!value.asArray().isEmpty())
+            {
+                redacted.add(redact(value.asArray().get(0)));
+            }
+            return redacted;
+        }
+        return value.isBoolean() || value.isNull() ? value : REDACTED;
+    }
+
+    /**
+     * The explain command for the given command, or null when it can't be explained.
+     * Explain takes a single update or delete statement, so only the first one of a batch is explained.
+     */
+    static BsonDocument explainOf(String commandName, BsonDocument command)
+    {
+        BsonDocument explained = new BsonDocument();
+        for (String key : command.keySet())
+        {
+            if (!DRIVER_FIELDS.contains(key))
+            {
+                explained.put(key, command.get(key));
+            }
+        }
+        for (String statements : Arrays.asList("updates", "deletes"))
+        {
+            BsonValue value = explained.get(statements);
+            if (value != null && value.isArray() && value.asArray().size() > 1)
+            {
+                explained.put(statements, new BsonArray(value.asArray().subList(0, 1)));
+            }
+        }
+        return new BsonDocument("explain", explained).append("verbosity", new BsonString("executionStats"));
+    }
+}
@@ -0,0 +1,164 @@
+package com.wissen.mandihub.metrics;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an explain said about a slow operation: the stages of the winning plan from the root down (e.g. FETCH, IXSCAN
+ * or COLLSCAN), the indexes it used and the execution statistics.
+ */
+public class ExplainSummary
+{
+    private final List<String> stages = new ArrayList<>();
+
+    private final List<String> indexes = new ArrayList<>();
+
+    private long docsExamined = -1;
+
+    private long keysExamined = -1;
+
+    private long returned = -1;
+
+    private long executionTimeMillis = -1;
+
+    private String winningPlan;
+
+
+    /**
+     * Reads the explain output of a find, count, distinct, update, delete, findAndModify or aggregate command.
+     */
+    static ExplainSummary of(BsonDocument explain)
+    {
+        ExplainSummary summary = new ExplainSummary();
+        BsonDocument winningPlan = find(explain, "winningPlan");
+        if (winningPlan != null)
+        {
+            summary.winningPlan = winningPlan.toJson();
+            summary.collectStages(winningPlan);
+        }
+        BsonDocument executionStats = find(explain, "executionStats");
+        if (executionStats != null)
+        {
+            summary.docsExamined = number(executionStats, "totalDocsExamined");
+            summary.keysExamined = number(executionStats, "totalKeysExamined");
+            summary.returned = number(executionStats, "nReturned");
+            summary.executionTimeMillis = number(executionStats, "executionTimeMillis");
+        }
+        return summary;
+    }
+
+    private void collectStages(BsonDocument plan)
+    {
+        //Newer servers wrap the plan of the query engine in queryPlan.
+        BsonDocument stage = plan.containsKey("queryPlan") && plan.get("queryPlan").isDocument() ? plan.getDocument("queryPlan") : plan;
+        if (stage.containsKey("stage"))
+        {
+            stages.add(stage.get("stage").isString() ? stage.getString("stage").getValue() : stage.get("stage").toString());
+        }
+        if (stage.containsKey("indexName") && stage.get("indexName").isString())
+        {
+            indexes.add(stage.getString("indexName").getValue());
+        }
+        if (stage.containsKey("inputStage") && stage.get("inputStage").isDocument())
+        {
+            collectStages(stage.getDocument("inputStage"));
+        }
+        if (stage.containsKey("inputStages") && stage.get("inputStages").isArray())
+        {
+            for (BsonValue input : stage.getArray("inputStages"))
+            {
+                if (input.isDocument())
+                {
+                    collectStages(input.asDocument());
+                }
+            }
+        }
+    }
+
+    //The first document under the key, searched depth first, so aggregate explains are read like find explains.
+    private static BsonDocument find(BsonValue value, String key)
+    {
+        if (value.isDocument())
+        {
+            BsonDocument document = value.asDocument();
+            if (document.containsKey(key) && document.get(key).isDocument())
+            {
+                return document.getDocument(key);
+            }
+            for (BsonValue child : document.values())
+            {
+                BsonDocument found = find(child, key);
+                if (found != null)
+                {
+                    return found;
+                }
+            }
+        }
+        else if (value.isArray())
+        {
+            for (BsonValue child : value.asArray())
+            {
+                BsonDocument found = find(child, key);
+                if (found != null)
+                {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long number(BsonDocument document, String key)
+    {
+        BsonValue value = document.get(key);
+        return value != null && value.isNumber() ? value.asNumber().longValue() : -1;
+    }
+
+    /**
+     * True when the plan reads the whole collection instead of an index.
+     */
+    public boolean isCollectionScan()
+    {
+        return stages.contains("COLLSCAN");
+    }
+
+    public List<String> getStages()
+    {
+        return stages;
+    }
+
+    public List<String> getIndexes()
+    {
+        return indexes;
+    }
+
+    public long getDocsExamined()
+    {
+        return docsExamined;
+    }
+
+    public long getKeysExamined()
+    {
+        return keysExamined;
+    }
+
+    public long getReturned()
+    {
+        return returned;
+    }
+
+    public long getExecutionTimeMillis()
+    {
+        return executionTimeMillis;
+    }
+
+    @JsonRawValue
+    public String getWinningPlan()
+    {
+        return winningPlan;
+    }
+}
@@ -0,0 +1,108 @@
+package com.wissen.mandihub.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every command the MongoDB driver sends, tagged with the command, the collection and whether it succeeded
+ * (mongodb.command), and counts the documents each successful command returned or wrote (mongodb.documents).
+ * The collection is only part of the started event, so it is kept by request id until the command completes.
+ */
+public class MongoCommandMetrics implements CommandListener
+{
+    static final String NO_COLLECTION = "none";
+
+    private final MeterRegistry registry;
+    private final Map<Integer, String> collectionsByRequestId = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> documentCounts = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry registry)
+    {
+        this.registry = registry;
+    }
+
+
+    @Override
+    public void commandStarted(CommandStartedEvent event)
+    {
+        collectionsByRequestId.put(event.getRequestId(), collectionOf(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event)
+    {
+        String collection = collectionOf(event.getRequestId());
+        timer(event.getCommandName(), collection, "success").record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        long documents = documentCount(event.getResponse());
+        if (documents >= 0)
+        {
+            documentCounts.computeIfAbsent(event.getCommandName() + " " + collection, key -> DistributionSummary.builder("mongodb.documents")
+                    .description("Documents returned or written by a MongoDB command")
+                    .tag("command", event.getCommandName())
+                    .tag("collection", collection)
+                    .register(registry)).record(documents);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event)
+    {
+        timer(event.getCommandName(), collectionOf(event.getRequestId()), "failed").record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private String collectionOf(int requestId)
+    {
+        String collection = collectionsByRequestId.remove(requestId);
+        return collection == null ? NO_COLLECTION : collection;
+    }
+
+    private Timer timer(String command, String collection, String status)
+    {
+        return timers.computeIfAbsent(command + " " + collection + " " + status, key -> Timer.builder("mongodb.command")
+                .description("Duration of a MongoDB command")
+                .tag("command", command)
+                .tag("collection", collection)
+                .tag("status", status)
+                .register(registry));
+    }
+
+    //The collection is the value of the command name, except for getMore, which names it in a field of its own.
+    static String collectionOf(String commandName, BsonDocument command)
+    {
+        BsonValue collection = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : NO_COLLECTION;
+    }
+
+    //The size of the batch of a cursor reply, n of a write or count, whether findAndModify found a document; -1 otherwise.
+    static long documentCount(BsonDocument response)
+    {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument())
+        {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch") ? cursor.asDocument().get("firstBatch") : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : -1;
+        }
+        BsonValue n = response.get("n");
+        if (n != null && n.isNumber())
+        {
+            return n.asNumber().longValue();
+        }
+        if (response.containsKey("value"))
+        {
+            return response.get("value").isNull() ? 0 : 1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,121 @@
+package com.wissen.mandihub.metrics;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.util.Date;
+
+/**
+ * A MongoDB command which took longer than the slow operation threshold, with its shape and, once the
+ * explain has run, its plan.
+ */
+public class SlowOperation
+{
+    public enum ExplainStatus
+    {
+        PENDING,
+        DONE,
+        FAILED,
+        SKIPPED
+    }
+
+    private final Date recordedAt;
+
+    private final String database;
+
+    private final String collection;
+
+    private final String command;
+
+    private final String shape;
+
+    private final double durationMillis;
+
+    private final boolean succeeded;
+
+    private volatile ExplainStatus explainStatus;
+
+    private volatile ExplainSummary plan;
+
+    private volatile String explainError;
+
+    SlowOperation(String database, String collection, String command, String shape, double durationMillis, boolean succeeded, ExplainStatus explainStatus)
+    {
+        this.recordedAt = new Date();
+        this.database = database;
+        this.collection = collection;
+        this.command = command;
+        this.shape = shape;
+        this.durationMillis = durationMillis;
+        this.succeeded = succeeded;
+        this.explainStatus = explainStatus;
+    }
+
+
+    void explained(ExplainSummary plan)
+    {
+        this.plan = plan;
+        this.explainStatus = ExplainStatus.DONE;
+    }
+
+    void explainFailed(String error)
+    {
+        this.explainError = error;
+        this.explainStatus = ExplainStatus.FAILED;
+    }
+
+    void explainSkipped()
+    {
+        this.explainStatus = ExplainStatus.SKIPPED;
+    }
+
+    public Date getRecordedAt()
+    {
+        return recordedAt;
+    }
+
+    public String getDatabase()
+    {
+        return database;
+    }
+
+    public String getCollection()
+    {
+        return collection;
+    }
+
+    public String getCommand()
+    {
+        return command;
+    }
+
+    @JsonRawValue
+    public String getShape()
+    {
+        return shape;
+    }
+
+    public double getDurationMillis()
+    {
+        return durationMillis;
+    }
+
+    public boolean isSucceeded()
+    {
+        return succeeded;
+    }
+
+    public ExplainStatus getExplainStatus()
+    {
+        return explainStatus;
+    }
+
+    public ExplainSummary getPlan()
+    {
+        return plan;
+    }
+
+    public String getExplainError()
+    {
+        return explainError;
+    }
+}
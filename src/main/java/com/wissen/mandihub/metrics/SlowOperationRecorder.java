@@ -0,0 +1,181 @@
+package com.wissen.mandihub.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last slow MongoDB commands, those which took at least the threshold, in a ring buffer.
+ * Each one is recorded with its shape (values redacted) and explained in the background with executionStats,
+ * so the plan shows whether it scanned the collection or an index and how many documents it examined.
+ * Only the commands which can be explained are tracked; their command document is copied when they start,
+ * because the driver reuses its buffer once the command is sent.
+ */
+public class SlowOperationRecorder implements CommandListener
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowOperationRecorder.class);
+
+    private static final Set<String> EXPLAINABLE_COMMANDS = new HashSet<>(Arrays.asList(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify"));
+
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final ObjectProvider<MongoDatabaseFactory> databaseFactory;
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    private final SlowOperation[] ring;
+    private int next;
+    private long recorded;
+
+    public SlowOperationRecorder(long thresholdMillis, int capacity, boolean explain, ObjectProvider<MongoDatabaseFactory> databaseFactory)
+    {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explain = explain;
+        this.databaseFactory = databaseFactory;
+        this.ring = new SlowOperation[capacity];
+        //One explain at a time; when they pile up the newest are skipped rather than queued without bound.
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), runnable ->
+        {
+            Thread thread = new Thread(runnable, "slow-operation-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    @Override
+    public void commandStarted(CommandStartedEvent event)
+    {
+        if (EXPLAINABLE_COMMANDS.contains(event.getCommandName()))
+        {
+            inFlight.put(event.getRequestId(), new StartedCommand(event.getDatabaseName(), event.getCommand().clone()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event)
+    {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event)
+    {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+    }
+
+    private void completed(int requestId, String commandName, long elapsedNanos, boolean succeeded)
+    {
+        StartedCommand started = inFlight.remove(requestId);
+        if (started == null || elapsedNanos < thresholdNanos)
+        {
+            return;
+        }
+        SlowOperation operation = new SlowOperation(started.database, MongoCommandMetrics.collectionOf(commandName, started.command), commandName,
+                CommandShapes.shapeOf(commandName, started.command).toJson(), elapsedNanos / 1_000_000.0, succeeded,
+                explain ? SlowOperation.ExplainStatus.PENDING : SlowOperation.ExplainStatus.SKIPPED);
+        add(operation);
+        if (explain)
+        {
+            try
+            {
+                explainExecutor.execute(() -> explain(operation, started));
+            }
+            catch (RejectedExecutionException e)
+            {
+                operation.explainSkipped();
+            }
+        }
+    }
+
+    private void explain(SlowOperation operation, StartedCommand started)
+    {
+        try
+        {
+            BsonDocument result = databaseFactory.getObject().getMongoDatabase(started.database)
+                    .runCommand(CommandShapes.explainOf(operation.getCommand(), started.command), BsonDocument.class);
+            operation.explained(ExplainSummary.of(result));
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.debug("Couldn't explain the slow {} on {}", operation.getCommand(), operation.getCollection(), e);
+            operation.explainFailed(e.getMessage());
+        }
+    }
+
+    private synchronized void add(SlowOperation operation)
+    {
+        ring[next] = operation;
+        next = (next + 1) % ring.length;
+        recorded++;
+    }
+
+    /**
+     * The most recent slow operations, newest first.
+     */
+    public synchronized List<SlowOperation> recent(int limit)
+    {
+        int size = (int) Math.min(Math.min(recorded, ring.length), limit);
+        List<SlowOperation> operations = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++)
+        {
+            operations.add(ring[(next - i + ring.length) % ring.length]);
+        }
+        return operations;
+    }
+
+    public synchronized long getRecorded()
+    {
+        return recorded;
+    }
+
+    public synchronized void clear()
+    {
+        Arrays.fill(ring, null);
+        next = 0;
+        recorded = 0;
+    }
+
+    public long getThresholdMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        explainExecutor.shutdownNow();
+    }
+
+    private static class StartedCommand
+    {
+        private final String database;
+        private final BsonDocument command;
+
+        StartedCommand(String database, BsonDocument command)
+        {
+            this.database = database;
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Writes values the way MappingMongoConverter does: string ids which are valid ObjectIds as ObjectIds, no null fields.
+ */
+final class BsonValues
+{
+    private BsonValues()
+    {
+    }
+
+
+    static Object toId(String id)
+    {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    static String idOf(Object id)
+    {
+        if (id == null)
+        {
+            return null;
+        }
+        return id instanceof ObjectId ? ((ObjectId) id).toHexString() : id.toString();
+    }
+
+    static void putId(Document document, String id)
+    {
+        if (id != null)
+        {
+            document.put("_id", toId(id));
+        }
+    }
+
+    static void putIfNotNull(Document document, String key, Object value)
+    {
+        if (value != null)
+        {
+            document.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import org.bson.Document;
+
+public class CategoryCodec implements ModelCodec<Category>
+{
+    @Override
+    public Class<Category> getType()
+    {
+        return Category.class;
+    }
+
+    @Override
+    public Category decode(Document document)
+    {
+        return new Category(BsonValues.idOf(document.get("_id")), document.getString("name"));
+    }
+
+    @Override
+    public void encode(Category category, Document document)
+    {
+        BsonValues.putId(document, category.getId());
+        BsonValues.putIfNotNull(document, "name", category.getName());
+    }
+}
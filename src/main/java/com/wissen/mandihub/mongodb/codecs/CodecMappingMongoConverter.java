@@ -0,0 +1,71 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.models.SellerReference;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MappingMongoConverter which reads and writes the catalog models with their ModelCodec instead of reflection.
+ * MongoTemplate, the repositories and the reactive template all read and write documents through the converter,
+ * so they all pick the codecs up. Every other type, and queries and updates, still go through the mapping metadata.
+ * No _class field is written; every collection only ever holds one type.
+ */
+public class CodecMappingMongoConverter extends MappingMongoConverter
+{
+    private final Map<Class<?>, ModelCodec<?>> codecs = new HashMap<>();
+
+    public CodecMappingMongoConverter(DbRefResolver dbRefResolver,
+                                      MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext)
+    {
+        super(dbRefResolver, mappingContext);
+        ProfileCodec profileCodec = new ProfileCodec();
+        EmbeddedCategoryCodec embeddedCategoryCodec = new EmbeddedCategoryCodec();
+        register(new ProductCodec(embeddedCategoryCodec));
+        register(new SellerCodec(profileCodec));
+        register(new CategoryCodec());
+        register(profileCodec);
+        register(embeddedCategoryCodec);
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S> S read(Class<S> type, Bson bson)
+    {
+        ModelCodec<?> codec = codecs.get(type);
+        if (codec != null && bson instanceof Document)
+        {
+            return (S) codec.decode((Document) bson);
+        }
+        return super.read(type, bson);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(Object source, Bson bson)
+    {
+        //A SellerReference is written as the seller it points to.
+        Class<?> type = source instanceof SellerReference ? Seller.class : source.getClass();
+        ModelCodec<Object> codec = (ModelCodec<Object>) codecs.get(type);
+        if (codec != null && bson instanceof Document)
+        {
+            codec.encode(source, (Document) bson);
+            return;
+        }
+        super.write(source, bson);
+    }
+
+    private void register(ModelCodec<?> codec)
+    {
+        codecs.put(codec.getType(), codec);
+    }
+}
@@ -0,0 +1,26 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import org.bson.Document;
+
+public class EmbeddedCategoryCodec implements ModelCodec<EmbeddedCategory>
+{
+    @Override
+    public Class<EmbeddedCategory> getType()
+    {
+        return EmbeddedCategory.class;
+    }
+
+    @Override
+    public EmbeddedCategory decode(Document document)
+    {
+        return new EmbeddedCategory(BsonValues.idOf(document.get("_id")), document.getString("name"));
+    }
+
+    @Override
+    public void encode(EmbeddedCategory category, Document document)
+    {
+        BsonValues.putId(document, category.getId());
+        BsonValues.putIfNotNull(document, "name", category.getName());
+    }
+}
@@ -0,0 +1,16 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import org.bson.Document;
+
+/**
+ * Hand-written mapping of one model class to and from a BSON document, used by CodecMappingMongoConverter
+ * instead of the reflective mapping of MappingMongoConverter.
+ */
+public interface ModelCodec<T>
+{
+    Class<T> getType();
+
+    T decode(Document document);
+
+    void encode(T value, Document document);
+}
@@ -0,0 +1,105 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import com.mongodb.DBRef;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.SellerReference;
+import com.wissen.mandihub.mongodb.support.SellerReferenceResolver;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The seller is stored as a DBRef to the sellers collection and read back as a SellerReference,
+ * which SellerReferenceResolver resolves in bulk.
+ */
+public class ProductCodec implements ModelCodec<Product>
+{
+    private static final String SELLERS = "sellers";
+
+    private final EmbeddedCategoryCodec embeddedCategoryCodec;
+
+    public ProductCodec(EmbeddedCategoryCodec embeddedCategoryCodec)
+    {
+        this.embeddedCategoryCodec = embeddedCategoryCodec;
+    }
+
+
+    @Override
+    public Class<Product> getType()
+    {
+        return Product.class;
+    }
+
+    @Override
+    public Product decode(Document document)
+    {
+        Product product = new Product();
+        product.setId(BsonValues.idOf(document.get("_id")));
+        product.setName(document.getString("name"));
+        product.setDescription(document.getString("description"));
+        Object price = document.get("price");
+        if (price instanceof Number)
+        {
+            product.setPrice(((Number) price).floatValue());
+        }
+        Object imageURLs = document.get("image_URLs");
+        if (imageURLs instanceof Collection)
+        {
+            List<String> urls = new ArrayList<>(((Collection<?>) imageURLs).size());
+            for (Object url : (Collection<?>) imageURLs)
+            {
+                urls.add(url == null ? null : url.toString());
+            }
+            product.setImage_URLs(urls);
+        }
+        Object seller = document.get("seller");
+        if (seller instanceof DBRef)
+        {
+            product.setSeller(new SellerReference(BsonValues.idOf(((DBRef) seller).getId())));
+        }
+        Object categories = document.get("fallIntoCategories");
+        if (categories instanceof Collection)
+        {
+            HashSet<EmbeddedCategory> embedded = new HashSet<>();
+            for (Object category : (Collection<?>) categories)
+            {
+                if (category instanceof Document)
+                {
+                    embedded.add(embeddedCategoryCodec.decode((Document) category));
+                }
+            }
+            product.setFallIntoCategories(embedded);
+        }
+        return product;
+    }
+
+    @Override
+    public void encode(Product product, Document document)
+    {
+        BsonValues.putId(document, product.getId());
+        BsonValues.putIfNotNull(document, "name", product.getName());
+        BsonValues.putIfNotNull(document, "description", product.getDescription());
+        document.put("price", (double) product.getPrice());
+        BsonValues.putIfNotNull(document, "image_URLs", product.getImage_URLs());
+        String sellerId = SellerReferenceResolver.sellerIdOf(product);
+        if (sellerId != null)
+        {
+            document.put("seller", new DBRef(SELLERS, BsonValues.toId(sellerId)));
+        }
+        if (product.getFallIntoCategories() != null)
+        {
+            List<Document> categories = new ArrayList<>(product.getFallIntoCategories().size());
+            for (EmbeddedCategory category : product.getFallIntoCategories())
+            {
+                Document embedded = new Document();
+                embeddedCategoryCodec.encode(category, embedded);
+                categories.add(embedded);
+            }
+            document.put("fallIntoCategories", categories);
+        }
+    }
+}
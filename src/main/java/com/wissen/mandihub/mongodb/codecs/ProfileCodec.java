@@ -0,0 +1,49 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import com.wissen.mandihub.enums.Gender;
+import com.wissen.mandihub.mongodb.models.Profile;
+import org.bson.Document;
+
+import java.util.Date;
+
+public class ProfileCodec implements ModelCodec<Profile>
+{
+    @Override
+    public Class<Profile> getType()
+    {
+        return Profile.class;
+    }
+
+    @Override
+    public Profile decode(Document document)
+    {
+        Profile profile = new Profile();
+        profile.setFirstName(document.getString("firstName"));
+        profile.setLastName(document.getString("lastName"));
+        profile.setWebsite(document.getString("website"));
+        profile.setBirthday(document.get("birthday", Date.class));
+        profile.setAddress(document.getString("address"));
+        profile.setEmailAddress(document.getString("emailAddress"));
+        String gender = document.getString("gender");
+        if (gender != null)
+        {
+            profile.setGender(Gender.valueOf(gender));
+        }
+        return profile;
+    }
+
+    @Override
+    public void encode(Profile profile, Document document)
+    {
+        BsonValues.putIfNotNull(document, "firstName", profile.getFirstName());
+        BsonValues.putIfNotNull(document, "lastName", profile.getLastName());
+        BsonValues.putIfNotNull(document, "website", profile.getWebsite());
+        BsonValues.putIfNotNull(document, "birthday", profile.getBirthday());
+        BsonValues.putIfNotNull(document, "address", profile.getAddress());
+        BsonValues.putIfNotNull(document, "emailAddress", profile.getEmailAddress());
+        if (profile.getGender() != null)
+        {
+            document.put("gender", profile.getGender().name());
+        }
+    }
+}
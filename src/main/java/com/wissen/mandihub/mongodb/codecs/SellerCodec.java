@@ -0,0 +1,48 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import com.wissen.mandihub.mongodb.models.Seller;
+import org.bson.Document;
+
+public class SellerCodec implements ModelCodec<Seller>
+{
+    private final ProfileCodec profileCodec;
+
+    public SellerCodec(ProfileCodec profileCodec)
+    {
+        this.profileCodec = profileCodec;
+    }
+
+
+    @Override
+    public Class<Seller> getType()
+    {
+        return Seller.class;
+    }
+
+    @Override
+    public Seller decode(Document document)
+    {
+        Seller seller = new Seller();
+        seller.setId(BsonValues.idOf(document.get("_id")));
+        seller.setAccountId(document.getString("accountId"));
+        Object profile = document.get("profile");
+        if (profile instanceof Document)
+        {
+            seller.setProfile(profileCodec.decode((Document) profile));
+        }
+        return seller;
+    }
+
+    @Override
+    public void encode(Seller seller, Document document)
+    {
+        BsonValues.putId(document, seller.getId());
+        BsonValues.putIfNotNull(document, "accountId", seller.getAccountId());
+        if (seller.getProfile() != null)
+        {
+            Document profile = new Document();
+            profileCodec.encode(seller.getProfile(), profile);
+            document.put("profile", profile);
+        }
+    }
+}
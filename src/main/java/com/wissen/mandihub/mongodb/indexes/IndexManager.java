@@ -0,0 +1,192 @@
+package com.wissen.mandihub.mongodb.indexes;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.CategoryMembership;
+import com.wissen.mandihub.mongodb.models.CategoryRenameJob;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declares the indexes behind the repository queries and makes sure they exist.
+ * Spring Boot doesn't create the indexes of @Indexed/@CompoundIndex annotations by default, so
+ * every index the application relies on is listed here. Indexes are matched by key pattern,
+ * which makes ensuring them idempotent even if an index was created by hand under another name.
+ */
+@Component
+public class IndexManager implements SmartInitializingSingleton
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexManager.class);
+
+    static final List<ManagedIndex> REQUIRED_INDEXES = Arrays.asList(
+            //ProductRepository.findByName and the name ordered product pages
+            ManagedIndex.on(Product.class, "name_id").asc("name").asc("_id"),
+            //price ordered product pages
+            ManagedIndex.on(Product.class, "price_id").asc("price").asc("_id"),
+            //products of a category, e.g. while propagating a category rename
+            ManagedIndex.on(Product.class, "fallIntoCategories_id_id").asc("fallIntoCategories._id").asc("_id"),
+            //products of a seller, the seller product pages and counters
+            ManagedIndex.on(Product.class, "seller_id_id").asc("seller.$id").asc("_id"),
+            //CategoryRepository.findByName and the name ordered category pages
+            ManagedIndex.on(Category.class, "name_id").asc("name").asc("_id"),
+            ManagedIndex.on(Seller.class, "accountId").asc("accountId").unique(),
+            //SellerRepository.findByFirstName
+            ManagedIndex.on(Seller.class, "profile_firstName").asc("profile.firstName"),
+            ManagedIndex.on(CategoryMembership.class, "categoryId_productId").asc("categoryId").asc("productId").unique(),
+            ManagedIndex.on(CategoryMembership.class, "productId").asc("productId"),
+            ManagedIndex.on(CategoryRenameJob.class, "categoryId_createdAt").asc("categoryId").desc("createdAt"),
+            ManagedIndex.on(CategoryRenameJob.class, "status_createdAt").asc("status").asc("createdAt"));
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private volatile IndexReport lastReport;
+
+
+    //Runs once every bean exists but before the web server starts, so no request and none of the
+    //ApplicationReadyEvent listeners (seeding, generation, the in-memory indexes) run without the indexes.
+    @Override
+    public void afterSingletonsInstantiated()
+    {
+        IndexReport report = ensureIndexes();
+        if (!report.getCreated().isEmpty())
+        {
+            LOGGER.info("Created indexes: {}", report.getCreated());
+        }
+        if (!report.getMissing().isEmpty())
+        {
+            LOGGER.warn("Missing indexes: {}", report.getMissing());
+        }
+        if (!report.getExtra().isEmpty())
+        {
+            LOGGER.info("Indexes which aren't managed by the application: {}", report.getExtra());
+        }
+    }
+
+    /**
+     * Creates every required index which doesn't exist yet and reports the resulting state.
+     */
+    public IndexReport ensureIndexes()
+    {
+        IndexReport report = check(true);
+        lastReport = report;
+        return report;
+    }
+
+    /**
+     * Compares the existing indexes with the required ones without changing anything.
+     */
+    public IndexReport verifyIndexes()
+    {
+        IndexReport report = check(false);
+        lastReport = report;
+        return report;
+    }
+
+    public IndexReport getLastReport()
+    {
+        return lastReport;
+    }
+
+    private IndexReport check(boolean create)
+    {
+        IndexReport report = new IndexReport();
+        Map<Class<?>, Set<String>> requiredByEntity = new LinkedHashMap<>();
+        for (ManagedIndex index : REQUIRED_INDEXES)
+        {
+            requiredByEntity.computeIfAbsent(index.getEntityClass(), entity -> new HashSet<>()).add(index.keyPattern());
+        }
+        for (Map.Entry<Class<?>, Set<String>> entry : requiredByEntity.entrySet())
+        {
+            Class<?> entityClass = entry.getKey();
+            String collection = mongoTemplate.getCollectionName(entityClass);
+            IndexOperations indexOperations = mongoTemplate.indexOps(entityClass);
+            Set<String> existing = existingKeyPatterns(indexOperations);
+            for (ManagedIndex index : REQUIRED_INDEXES)
+            {
+                if (index.getEntityClass() != entityClass)
+                {
+                    continue;
+                }
+                String description = collection + " " + index.keyPattern();
+                if (existing.contains(index.keyPattern()))
+                {
+                    report.getPresent().add(description);
+                }
+                else if (!create)
+                {
+                    report.getMissing().add(description);
+                }
+                else
+                {
+                    try
+                    {
+                        indexOperations.ensureIndex(index.toIndex());
+                        report.getCreated().add(description);
+                    }
+                    catch (DataAccessException e)
+                    {
+                        LOGGER.error("Couldn't create the index " + description, e);
+                        report.getMissing().add(description);
+                    }
+                }
+            }
+            for (String keyPattern : existing)
+            {
+                if (!entry.getValue().contains(keyPattern) && !"{_id: 1}".equals(keyPattern))
+                {
+                    report.getExtra().add(collection + " " + keyPattern);
+                }
+            }
+        }
+        return report;
+    }
+
+    private static Set<String> existingKeyPatterns(IndexOperations indexOperations)
+    {
+        Set<String> keyPatterns = new LinkedHashSet<>();
+        for (IndexInfo info : indexOperations.getIndexInfo())
+        {
+            LinkedHashMap<String, Sort.Direction> keys = new LinkedHashMap<>();
+            for (IndexField field : info.getIndexFields())
+            {
+                keys.put(field.getKey(), field.getDirection());
+            }
+            keyPatterns.add(keyPattern(keys));
+        }
+        return keyPatterns;
+    }
+
+    static String keyPattern(Map<String, Sort.Direction> keys)
+    {
+        StringBuilder pattern = new StringBuilder("{");
+        for (Map.Entry<String, Sort.Direction> key : keys.entrySet())
+        {
+            if (pattern.length() > 1)
+            {
+                pattern.append(", ");
+            }
+            String direction = key.getValue() == null ? "?" : key.getValue() == Sort.Direction.ASC ? "1" : "-1";
+            pattern.append(key.getKey()).append(": ").append(direction);
+        }
+        return pattern.append("}").toString();
+    }
+}
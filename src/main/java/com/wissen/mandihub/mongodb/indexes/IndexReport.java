@@ -0,0 +1,52 @@
+package com.wissen.mandihub.mongodb.indexes;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Indexes are reported as {@code collection {key pattern}}.
+ */
+public class IndexReport
+{
+    private final Date checkedAt = new Date();
+
+    private final List<String> present = new ArrayList<>();
+
+    private final List<String> created = new ArrayList<>();
+
+    private final List<String> missing = new ArrayList<>();
+
+    private final List<String> extra = new ArrayList<>();
+
+    public Date getCheckedAt()
+    {
+        return checkedAt;
+    }
+
+    public List<String> getPresent()
+    {
+        return present;
+    }
+
+    public List<String> getCreated()
+    {
+        return created;
+    }
+
+    /**
+     * Required indexes which don't exist, either because they haven't been ensured or because creating them failed.
+     */
+    public List<String> getMissing()
+    {
+        return missing;
+    }
+
+    /**
+     * Indexes which exist but no query of the application needs.
+     */
+    public List<String> getExtra()
+    {
+        return extra;
+    }
+}
@@ -0,0 +1,83 @@
+package com.wissen.mandihub.mongodb.indexes;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An index which the application's queries depend on.
+ */
+public class ManagedIndex
+{
+    private final Class<?> entityClass;
+
+    private final String name;
+
+    private final LinkedHashMap<String, Sort.Direction> keys = new LinkedHashMap<>();
+
+    private boolean unique;
+
+    private ManagedIndex(Class<?> entityClass, String name)
+    {
+        this.entityClass = entityClass;
+        this.name = name;
+    }
+
+    public static ManagedIndex on(Class<?> entityClass, String name)
+    {
+        return new ManagedIndex(entityClass, name);
+    }
+
+    public ManagedIndex asc(String key)
+    {
+        keys.put(key, Sort.Direction.ASC);
+        return this;
+    }
+
+    public ManagedIndex desc(String key)
+    {
+        keys.put(key, Sort.Direction.DESC);
+        return this;
+    }
+
+    public ManagedIndex unique()
+    {
+        this.unique = true;
+        return this;
+    }
+
+    public Class<?> getEntityClass()
+    {
+        return entityClass;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public boolean isUnique()
+    {
+        return unique;
+    }
+
+    /**
+     * The key pattern, e.g. {@code {name: 1, _id: 1}}, which identifies the index whatever its name is.
+     */
+    public String keyPattern()
+    {
+        return IndexManager.keyPattern(keys);
+    }
+
+    Index toIndex()
+    {
+        Index index = new Index().named(name).background();
+        for (Map.Entry<String, Sort.Direction> key : keys.entrySet())
+        {
+            index.on(key.getKey(), key.getValue());
+        }
+        return unique ? index.unique() : index;
+    }
+}
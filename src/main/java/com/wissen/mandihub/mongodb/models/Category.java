@@ -2,12 +2,9 @@ package com.wissen.mandihub.mongodb.models;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.TypeAlias;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 
 @Document(collection = "categories")
 @TypeAlias(value = "Category")
@@ -18,9 +15,6 @@ public class Category implements Serializable
 
     private String name;
 
-    @DBRef(lazy = true)
-    private List<Product> productsOfCategory = new ArrayList<>();
-
     public Category()
     {
     }
@@ -30,6 +24,12 @@ public class Category implements Serializable
         this.name = name;
     }
 
+    public Category(String id, String name)
+    {
+        this.id = id;
+        this.name = name;
+    }
+
     public String getId()
     {
         return id;
@@ -49,14 +49,4 @@ public class Category implements Serializable
     {
         this.name = name;
     }
-
-    public List<Product> getProductsOfCategory()
-    {
-        return productsOfCategory;
-    }
-
-    public void setProductsOfCategory(List<Product> productsOfCategory)
-    {
-        this.productsOfCategory = productsOfCategory;
-    }
 }
@@ -0,0 +1,63 @@
+package com.wissen.mandihub.mongodb.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One product of one category. Replaces the ever-growing productsOfCategory array, so adding a
+ * product to a category is a single small insert however big the category is.
+ * The unique (categoryId, productId) index and the productId index are created by IndexManager, and
+ * CategoryMembershipBackfill fills the collection for databases which still have the old arrays.
+ */
+@Document(collection = "category_products")
+@TypeAlias("CategoryMembership")
+public class CategoryMembership
+{
+    @Id
+    private String id;
+
+    private String categoryId;
+
+    private String productId;
+
+    public CategoryMembership()
+    {
+    }
+
+    public CategoryMembership(String categoryId, String productId)
+    {
+        this.categoryId = categoryId;
+        this.productId = productId;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    public String getCategoryId()
+    {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId)
+    {
+        this.categoryId = categoryId;
+    }
+
+    public String getProductId()
+    {
+        return productId;
+    }
+
+    public void setProductId(String productId)
+    {
+        this.productId = productId;
+    }
+}
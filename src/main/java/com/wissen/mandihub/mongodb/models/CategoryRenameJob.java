@@ -0,0 +1,151 @@
+package com.wissen.mandihub.mongodb.models;
+
+import com.wissen.mandihub.enums.PropagationStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Progress of copying a new category name into the EmbeddedCategory of every product of the category.
+ * Products are processed in _id order and lastProductId is the checkpoint to resume from.
+ */
+@Document(collection = "category_rename_jobs")
+@TypeAlias("CategoryRenameJob")
+public class CategoryRenameJob
+{
+    @Id
+    private String id;
+
+    private String categoryId;
+
+    private String newName;
+
+    private PropagationStatus status;
+
+    private String lastProductId;
+
+    private long updatedProducts;
+
+    private long totalProducts;
+
+    private String error;
+
+    private Date createdAt;
+
+    private Date updatedAt;
+
+    public CategoryRenameJob()
+    {
+    }
+
+    public CategoryRenameJob(String categoryId, String newName)
+    {
+        this.categoryId = categoryId;
+        this.newName = newName;
+        this.status = PropagationStatus.PENDING;
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    public String getCategoryId()
+    {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId)
+    {
+        this.categoryId = categoryId;
+    }
+
+    public String getNewName()
+    {
+        return newName;
+    }
+
+    public void setNewName(String newName)
+    {
+        this.newName = newName;
+    }
+
+    public PropagationStatus getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(PropagationStatus status)
+    {
+        this.status = status;
+    }
+
+    public String getLastProductId()
+    {
+        return lastProductId;
+    }
+
+    public void setLastProductId(String lastProductId)
+    {
+        this.lastProductId = lastProductId;
+    }
+
+    public long getUpdatedProducts()
+    {
+        return updatedProducts;
+    }
+
+    public void setUpdatedProducts(long updatedProducts)
+    {
+        this.updatedProducts = updatedProducts;
+    }
+
+    public long getTotalProducts()
+    {
+        return totalProducts;
+    }
+
+    public void setTotalProducts(long totalProducts)
+    {
+        this.totalProducts = totalProducts;
+    }
+
+    public String getError()
+    {
+        return error;
+    }
+
+    public void setError(String error)
+    {
+        this.error = error;
+    }
+
+    public Date getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt)
+    {
+        this.createdAt = createdAt;
+    }
+
+    public Date getUpdatedAt()
+    {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt)
+    {
+        this.updatedAt = updatedAt;
+    }
+}
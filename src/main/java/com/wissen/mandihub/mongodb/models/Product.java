@@ -25,7 +25,7 @@ public class Product
 
     private List<String> image_URLs = new ArrayList<>();
 
-    @DBRef
+    @DBRef(lazy = true)
     private Seller seller;
 
     private Set<EmbeddedCategory> fallIntoCategories = new HashSet<>();
@@ -0,0 +1,97 @@
+package com.wissen.mandihub.mongodb.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The list view of a product: only the fields the client asked for are read from MongoDB and written to the
+ * response, and the seller is never dereferenced, only its id is reported.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSummary
+{
+    private String id;
+
+    private String name;
+
+    private Float price;
+
+    private List<String> categories;
+
+    private String description;
+
+    private List<String> image_URLs;
+
+    private String sellerId;
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public Float getPrice()
+    {
+        return price;
+    }
+
+    public void setPrice(Float price)
+    {
+        this.price = price;
+    }
+
+    public List<String> getCategories()
+    {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories)
+    {
+        this.categories = categories;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    public void setDescription(String description)
+    {
+        this.description = description;
+    }
+
+    public List<String> getImage_URLs()
+    {
+        return image_URLs;
+    }
+
+    public void setImage_URLs(List<String> image_URLs)
+    {
+        this.image_URLs = image_URLs;
+    }
+
+    public String getSellerId()
+    {
+        return sellerId;
+    }
+
+    public void setSellerId(String sellerId)
+    {
+        this.sellerId = sellerId;
+    }
+}
@@ -0,0 +1,77 @@
+package com.wissen.mandihub.mongodb.models;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The number of products of one seller, kept up to date as products are created so that it never has to be
+ * counted again. countedUpTo is the highest product id included in the count when it was first taken; only
+ * products with higher ids are added to it afterwards. counting is set until the count up to countedUpTo is added.
+ */
+@Document(collection = "seller_product_counts")
+@TypeAlias("SellerProductCount")
+public class SellerProductCount
+{
+    //The id of the seller.
+    @Id
+    private String id;
+
+    private long products;
+
+    private ObjectId countedUpTo;
+
+    private boolean counting;
+
+    public SellerProductCount()
+    {
+    }
+
+    public SellerProductCount(String id, long products, ObjectId countedUpTo)
+    {
+        this.id = id;
+        this.products = products;
+        this.countedUpTo = countedUpTo;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    public long getProducts()
+    {
+        return products;
+    }
+
+    public void setProducts(long products)
+    {
+        this.products = products;
+    }
+
+    public ObjectId getCountedUpTo()
+    {
+        return countedUpTo;
+    }
+
+    public void setCountedUpTo(ObjectId countedUpTo)
+    {
+        this.countedUpTo = countedUpTo;
+    }
+
+    public boolean isCounting()
+    {
+        return counting;
+    }
+
+    public void setCounting(boolean counting)
+    {
+        this.counting = counting;
+    }
+}
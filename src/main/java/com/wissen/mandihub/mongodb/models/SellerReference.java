@@ -0,0 +1,13 @@
+package com.wissen.mandihub.mongodb.models;
+
+/**
+ * The seller of a product as it is stored in the product: only the id of the seller.
+ * Read paths replace it with the full seller in bulk (see SellerReferenceResolver).
+ */
+public class SellerReference extends Seller
+{
+    public SellerReference(String id)
+    {
+        setId(id);
+    }
+}
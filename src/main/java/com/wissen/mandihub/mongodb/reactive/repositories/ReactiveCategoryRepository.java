@@ -0,0 +1,10 @@
+package com.wissen.mandihub.mongodb.reactive.repositories;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCategoryRepository extends ReactiveMongoRepository<Category, String>
+{
+    Mono<Category> findByName(String categoryName);
+}
@@ -0,0 +1,10 @@
+package com.wissen.mandihub.mongodb.reactive.repositories;
+
+import com.wissen.mandihub.mongodb.models.Product;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String>
+{
+    Mono<Product> findByName(String name);
+}
@@ -0,0 +1,12 @@
+package com.wissen.mandihub.mongodb.reactive.repositories;
+
+import com.wissen.mandihub.mongodb.models.Seller;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveSellerRepository extends ReactiveMongoRepository<Seller, String>
+{
+    @Query("{'profile.firstName': ?0}")
+    Flux<Seller> findByFirstName(String firstName);
+}
@@ -0,0 +1,53 @@
+package com.wissen.mandihub.mongodb.reactive.support;
+
+import com.wissen.mandihub.mongodb.models.CategoryMembership;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The reactive counterpart of CategoryMemberships. The upserts of one product are sent concurrently.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveCategoryMemberships
+{
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+
+    public Mono<Void> add(String productId, Collection<String> categoryIds)
+    {
+        return Flux.fromIterable(categoryIds)
+                .flatMap(categoryId -> reactiveMongoTemplate.upsert(
+                        new Query(Criteria.where("categoryId").is(categoryId).and("productId").is(productId)),
+                        new Update().setOnInsert("categoryId", categoryId).setOnInsert("productId", productId),
+                        CategoryMembership.class))
+                .then();
+    }
+
+    /**
+     * Moves the product from its previous categories to the given ones, writing only the memberships which changed.
+     */
+    public Mono<Void> update(String productId, Collection<String> previousCategoryIds, Collection<String> categoryIds)
+    {
+        Set<String> removed = new HashSet<>(previousCategoryIds);
+        removed.removeAll(categoryIds);
+        Set<String> added = new HashSet<>(categoryIds);
+        added.removeAll(previousCategoryIds);
+        Mono<Void> remove = removed.isEmpty()
+                ? Mono.empty()
+                : reactiveMongoTemplate.remove(new Query(Criteria.where("productId").is(productId).and("categoryId").in(removed)), CategoryMembership.class).then();
+        return Mono.when(remove, add(productId, added));
+    }
+}
@@ -0,0 +1,34 @@
+package com.wissen.mandihub.mongodb.reactive.support;
+
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.SellerProductCount;
+import com.wissen.mandihub.mongodb.support.SellerProductCounts;
+import com.wissen.mandihub.mongodb.support.SellerReferenceResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive counterpart of SellerProductCounts.added.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveSellerProductCounts
+{
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+
+    public Mono<Void> added(Product product)
+    {
+        String sellerId = SellerReferenceResolver.sellerIdOf(product);
+        if (sellerId == null || product.getId() == null)
+        {
+            return Mono.empty();
+        }
+        return reactiveMongoTemplate.updateFirst(SellerProductCounts.incrementQuery(sellerId, product.getId()),
+                SellerProductCounts.incrementUpdate(), SellerProductCount.class).then();
+    }
+}
@@ -0,0 +1,74 @@
+package com.wissen.mandihub.mongodb.reactive.support;
+
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.reactive.repositories.ReactiveSellerRepository;
+import com.wissen.mandihub.mongodb.support.SellerReferenceResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The reactive counterpart of SellerReferenceResolver: replaces the lazy seller references of
+ * a stream of products, one $in query per batch. A lazy reference must never be resolved by
+ * itself on the reactive stack, because that would block the event loop.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveSellerReferenceResolver
+{
+    public static final int BATCH_SIZE = 256;
+
+    @Autowired
+    private ReactiveSellerRepository _sellerReactiveRepository;
+
+
+    public Mono<Product> resolve(Mono<Product> product)
+    {
+        return product.flatMap(p -> resolveBatch(List.of(p)).next());
+    }
+
+    public Flux<Product> resolve(Flux<Product> products)
+    {
+        return products.buffer(BATCH_SIZE).concatMap(this::resolveBatch);
+    }
+
+    private Flux<Product> resolveBatch(List<Product> products)
+    {
+        Set<String> sellerIds = new HashSet<>();
+        for (Product product : products)
+        {
+            if (SellerReferenceResolver.isUnresolved(product.getSeller()))
+            {
+                String sellerId = SellerReferenceResolver.sellerIdOf(product);
+                if (sellerId != null)
+                {
+                    sellerIds.add(sellerId);
+                }
+            }
+        }
+        if (sellerIds.isEmpty())
+        {
+            return Flux.fromIterable(products);
+        }
+        return _sellerReactiveRepository.findAllById(sellerIds)
+                .collectMap(Seller::getId)
+                .flatMapMany(sellers ->
+                {
+                    for (Product product : products)
+                    {
+                        if (SellerReferenceResolver.isUnresolved(product.getSeller()))
+                        {
+                            product.setSeller(sellers.get(SellerReferenceResolver.sellerIdOf(product)));
+                        }
+                    }
+                    return Flux.fromIterable(products);
+                });
+    }
+}
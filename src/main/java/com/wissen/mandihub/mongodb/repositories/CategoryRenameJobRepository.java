@@ -0,0 +1,15 @@
+package com.wissen.mandihub.mongodb.repositories;
+
+import com.wissen.mandihub.enums.PropagationStatus;
+import com.wissen.mandihub.mongodb.models.CategoryRenameJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CategoryRenameJobRepository extends MongoRepository<CategoryRenameJob, String>
+{
+    List<CategoryRenameJob> findByStatusInOrderByCreatedAtAsc(Collection<PropagationStatus> statuses);
+
+    List<CategoryRenameJob> findByCategoryIdOrderByCreatedAtDesc(String categoryId);
+}
@@ -0,0 +1,111 @@
+package com.wissen.mandihub.mongodb.support;
+
+import com.wissen.mandihub.mongodb.indexes.IndexManager;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.Product;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills category_products for databases which still record membership in the productsOfCategory arrays of
+ * the categories. The memberships are built from the fallIntoCategories of the products, which every
+ * version of the application kept up to date, with the idempotent upserts of CategoryMemberships.addAll.
+ * Only when every product is done are the old arrays unset, so an interrupted backfill runs again on the
+ * next start and a finished one is never repeated.
+ */
+@Component
+public class CategoryMembershipBackfill implements SmartInitializingSingleton
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CategoryMembershipBackfill.class);
+
+    static final String OLD_FIELD = "productsOfCategory";
+    static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryMemberships _categoryMemberships;
+    @Autowired
+    private IndexManager _indexManager;
+
+
+    //Runs before the web server starts, like IndexManager, so no request reads a category which isn't filled yet.
+    @Override
+    public void afterSingletonsInstantiated()
+    {
+        if (!mongoTemplate.exists(oldArraysQuery(), Category.class))
+        {
+            return;
+        }
+        //The upserts rely on the unique (categoryId, productId) index, so make sure IndexManager ran first.
+        if (_indexManager.getLastReport() == null)
+        {
+            _indexManager.ensureIndexes();
+        }
+        long added = backfill();
+        LOGGER.info("Moved the category membership of the products into category_products, {} memberships added.", added);
+    }
+
+    /**
+     * Adds the membership of every product to category_products, then unsets the old productsOfCategory arrays.
+     * Returns how many memberships were new; running it again adds none.
+     */
+    public long backfill()
+    {
+        Query query = new Query(Criteria.where("fallIntoCategories._id").exists(true)).with(Sort.by("_id"));
+        query.fields().include("fallIntoCategories._id");
+        query.cursorBatchSize(BATCH_SIZE);
+        long added = 0;
+        Map<String, List<String>> batch = new LinkedHashMap<>();
+        try (CloseableIterator<Document> cursor = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Product.class)))
+        {
+            while (cursor.hasNext())
+            {
+                Document product = cursor.next();
+                batch.put(String.valueOf(product.get("_id")), categoryIdsOf(product));
+                if (batch.size() == BATCH_SIZE)
+                {
+                    added += _categoryMemberships.addAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+        added += _categoryMemberships.addAll(batch);
+        mongoTemplate.updateMulti(oldArraysQuery(), new Update().unset(OLD_FIELD), Category.class);
+        return added;
+    }
+
+    private static List<String> categoryIdsOf(Document product)
+    {
+        List<String> categoryIds = new ArrayList<>();
+        for (Object category : product.getList("fallIntoCategories", Object.class))
+        {
+            if (category instanceof Document && ((Document) category).get("_id") != null)
+            {
+                categoryIds.add(String.valueOf(((Document) category).get("_id")));
+            }
+        }
+        return categoryIds;
+    }
+
+    private static Query oldArraysQuery()
+    {
+        return new Query(Criteria.where(OLD_FIELD).exists(true));
+    }
+}
@@ -0,0 +1,186 @@
+package com.wissen.mandihub.mongodb.support;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.wissen.mandihub.mongodb.models.CategoryMembership;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.ProductSummary;
+import com.wissen.mandihub.mongodb.repositories.ProductRepository;
+import com.wissen.mandihub.pagination.KeysetPage;
+import com.wissen.mandihub.pagination.KeysetPaginator;
+import com.wissen.mandihub.pagination.KeysetSort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes the category_products collection, which records the products of every category.
+ */
+@Component
+public class CategoryMemberships
+{
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductRepository _productMongoRepository;
+    @Autowired
+    private SellerReferenceResolver _sellerReferenceResolver;
+    @Autowired
+    private KeysetPaginator _paginator;
+    @Autowired
+    private ProductSummaries _productSummaries;
+
+
+    /**
+     * Adds the product to the categories in one round trip and returns how many memberships were new.
+     * Upserts make this idempotent.
+     */
+    public int add(String productId, Collection<String> categoryIds)
+    {
+        return addAll(Collections.singletonMap(productId, categoryIds));
+    }
+
+    /**
+     * Adds many products to their categories with one unordered bulk write.
+     */
+    public int addAll(Map<String, ? extends Collection<String>> categoryIdsByProductId)
+    {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryMembership.class);
+        int operations = 0;
+        for (Map.Entry<String, ? extends Collection<String>> entry : categoryIdsByProductId.entrySet())
+        {
+            for (String categoryId : entry.getValue())
+            {
+                bulk.upsert(membershipQuery(categoryId, entry.getKey()), membershipUpdate(categoryId, entry.getKey()));
+                operations++;
+            }
+        }
+        if (operations == 0)
+        {
+            return 0;
+        }
+        BulkWriteResult result = bulk.execute();
+        return result.getUpserts().size();
+    }
+
+    /**
+     * Adds products which were just created to their categories. Plain inserts are cheaper than the
+     * upserts of addAll, but fail on memberships which already exist.
+     */
+    public void insertNew(Map<String, ? extends Collection<String>> categoryIdsByProductId)
+    {
+        List<CategoryMembership> memberships = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : categoryIdsByProductId.entrySet())
+        {
+            for (String categoryId : entry.getValue())
+            {
+                memberships.add(new CategoryMembership(categoryId, entry.getKey()));
+            }
+        }
+        if (!memberships.isEmpty())
+        {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryMembership.class).insert(memberships).execute();
+        }
+    }
+
+    /**
+     * Moves the product from its previous categories to the given ones. Only the memberships which changed are
+     * written, with one unordered bulk write, and nothing at all when the categories are the same.
+     */
+    public void update(String productId, Collection<String> previousCategoryIds, Collection<String> categoryIds)
+    {
+        Set<String> removed = new HashSet<>(previousCategoryIds);
+        removed.removeAll(categoryIds);
+        Set<String> added = new HashSet<>(categoryIds);
+        added.removeAll(previousCategoryIds);
+        if (removed.isEmpty() && added.isEmpty())
+        {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryMembership.class);
+        if (!removed.isEmpty())
+        {
+            bulk.remove(new Query(Criteria.where("productId").is(productId).and("categoryId").in(removed)));
+        }
+        for (String categoryId : added)
+        {
+            bulk.upsert(membershipQuery(categoryId, productId), membershipUpdate(categoryId, productId));
+        }
+        bulk.execute();
+    }
+
+    public long count(String categoryId)
+    {
+        return mongoTemplate.count(new Query(Criteria.where("categoryId").is(categoryId)), CategoryMembership.class);
+    }
+
+    /**
+     * A page of the products of a category, in product id order.
+     */
+    public KeysetPage<Product> productsOf(String categoryId, String after, Integer size)
+    {
+        KeysetPage<String> productIds = productIdsOf(categoryId, after, size);
+        Map<String, Product> productsById = new HashMap<>();
+        for (Product product : _productMongoRepository.findAllById(productIds.getItems()))
+        {
+            productsById.put(product.getId(), product);
+        }
+        List<Product> products = new ArrayList<>(productIds.getItems().size());
+        for (String productId : productIds.getItems())
+        {
+            Product product = productsById.get(productId);
+            if (product != null)
+            {
+                products.add(product);
+            }
+        }
+        _sellerReferenceResolver.resolve(products);
+        return new KeysetPage<>(products, productIds.getNext());
+    }
+
+    /**
+     * Like productsOf, with the products read as summaries of the given fields.
+     */
+    public KeysetPage<ProductSummary> productSummariesOf(String categoryId, String after, Integer size, Set<String> fields)
+    {
+        KeysetPage<String> productIds = productIdsOf(categoryId, after, size);
+        return new KeysetPage<>(_productSummaries.findAllById(productIds.getItems(), fields), productIds.getNext());
+    }
+
+    private KeysetPage<String> productIdsOf(String categoryId, String after, Integer size)
+    {
+        Query query = new Query(Criteria.where("categoryId").is(categoryId));
+        KeysetSort<CategoryMembership> sort = KeysetSort.by("productId", CategoryMembership::getProductId, CategoryMembership::getId);
+        KeysetPage<CategoryMembership> memberships = _paginator.page(query, CategoryMembership.class, sort, after, size);
+
+        List<String> productIds = new ArrayList<>(memberships.getItems().size());
+        for (CategoryMembership membership : memberships.getItems())
+        {
+            productIds.add(membership.getProductId());
+        }
+        return new KeysetPage<>(productIds, memberships.getNext());
+    }
+
+    private static Query membershipQuery(String categoryId, String productId)
+    {
+        return new Query(Criteria.where("categoryId").is(categoryId).and("productId").is(productId));
+    }
+
+    private static Update membershipUpdate(String categoryId, String productId)
+    {
+        return new Update().setOnInsert("categoryId", categoryId).setOnInsert("productId", productId);
+    }
+}
@@ -0,0 +1,250 @@
+package com.wissen.mandihub.mongodb.support;
+
+import com.mongodb.DBRef;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.ProductSummary;
+import com.wissen.mandihub.pagination.KeysetPage;
+import com.wissen.mandihub.pagination.KeysetPaginator;
+import com.wissen.mandihub.pagination.KeysetSort;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads products as ProductSummary. The query projects only the document fields behind the requested summary
+ * fields, and the documents are read as plain BSON documents, so neither the model mapping nor the seller
+ * DBRef resolution runs.
+ */
+@Component
+public class ProductSummaries
+{
+    public static final Set<String> DEFAULT_FIELDS = new LinkedHashSet<>(Arrays.asList("id", "name", "price", "categories"));
+
+    //Summary field -> the document field it is read from
+    private static final Map<String, String> DOCUMENT_FIELDS = new LinkedHashMap<>();
+
+    static
+    {
+        DOCUMENT_FIELDS.put("id", "_id");
+        DOCUMENT_FIELDS.put("name", "name");
+        DOCUMENT_FIELDS.put("price", "price");
+        DOCUMENT_FIELDS.put("categories", "fallIntoCategories.name");
+        DOCUMENT_FIELDS.put("description", "description");
+        DOCUMENT_FIELDS.put("image_URLs", "image_URLs");
+        DOCUMENT_FIELDS.put("sellerId", "seller");
+    }
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private KeysetPaginator _paginator;
+
+
+    /**
+     * Parses a comma separated list of summary fields; null or "summary" is the default set.
+     * Throws IllegalArgumentException for unknown fields.
+     */
+    public static Set<String> parseFields(String fields)
+    {
+        if (fields == null || fields.isBlank() || "summary".equals(fields))
+        {
+            return DEFAULT_FIELDS;
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(","))
+        {
+            String trimmed = field.trim();
+            if (!DOCUMENT_FIELDS.containsKey(trimmed))
+            {
+                throw new IllegalArgumentException("Unknown product field " + trimmed + ", the fields are " + DOCUMENT_FIELDS.keySet());
+            }
+            parsed.add(trimmed);
+        }
+        return parsed;
+    }
+
+    /**
+     * A page of summaries in id, name or price order. The sort field is read even when it isn't requested,
+     * because the continuation token is built from it.
+     */
+    public KeysetPage<ProductSummary> page(String sort, String after, Integer size, Set<String> fields)
+    {
+        KeysetSort<Document> keysetSort;
+        switch (sort)
+        {
+            case "id":
+                keysetSort = KeysetSort.byId(ProductSummaries::idOf);
+                break;
+            case "name":
+                keysetSort = KeysetSort.by("name", document -> document.get("name"), ProductSummaries::idOf);
+                break;
+            case "price":
+                keysetSort = KeysetSort.by("price", ProductSummaries::priceOf, ProductSummaries::idOf);
+                break;
+            default:
+                throw new IllegalArgumentException("Products can only be sorted by id, name or price.");
+        }
+        Query query = project(new Query(), fields);
+        if (!keysetSort.isById())
+        {
+            query.fields().include(keysetSort.getField());
+        }
+        return toSummaries(_paginator.page(query, Document.class, collection(), keysetSort, after, size), fields);
+    }
+
+    private static KeysetPage<ProductSummary> toSummaries(KeysetPage<Document> page, Set<String> fields)
+    {
+        List<ProductSummary> summaries = new ArrayList<>(page.getItems().size());
+        for (Document document : page.getItems())
+        {
+            summaries.add(toSummary(document, fields));
+        }
+        return new KeysetPage<>(summaries, page.getNext());
+    }
+
+    /**
+     * A page of the summaries of the products of a seller, in id order.
+     */
+    public KeysetPage<ProductSummary> pageOfSeller(String sellerId, String after, Integer size, Set<String> fields)
+    {
+        Query query = project(new Query(Criteria.where("seller.$id").is(KeysetPaginator.toIdValue(sellerId))), fields);
+        return toSummaries(_paginator.page(query, Document.class, collection(), KeysetSort.byId(ProductSummaries::idOf), after, size), fields);
+    }
+
+    public List<ProductSummary> findAll(Set<String> fields)
+    {
+        List<ProductSummary> summaries = new ArrayList<>();
+        for (Document document : mongoTemplate.find(project(new Query(), fields), Document.class, collection()))
+        {
+            summaries.add(toSummary(document, fields));
+        }
+        return summaries;
+    }
+
+    /**
+     * The summaries of the given products in the given order, with one $in query; missing products are left out.
+     */
+    public List<ProductSummary> findAllById(Collection<String> ids, Set<String> fields)
+    {
+        List<Object> idValues = new ArrayList<>(ids.size());
+        for (String id : ids)
+        {
+            idValues.add(KeysetPaginator.toIdValue(id));
+        }
+        Map<String, ProductSummary> byId = new HashMap<>();
+        for (Document document : mongoTemplate.find(project(new Query(Criteria.where("_id").in(idValues)), fields), Document.class, collection()))
+        {
+            byId.put(idOf(document), toSummary(document, fields));
+        }
+        List<ProductSummary> summaries = new ArrayList<>(ids.size());
+        for (String id : ids)
+        {
+            ProductSummary summary = byId.get(id);
+            if (summary != null)
+            {
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    private String collection()
+    {
+        return mongoTemplate.getCollectionName(Product.class);
+    }
+
+    //_id is always returned, so it is read whether the client wants it or not.
+    private static Query project(Query query, Set<String> fields)
+    {
+        for (String field : fields)
+        {
+            if (!"id".equals(field))
+            {
+                query.fields().include(DOCUMENT_FIELDS.get(field));
+            }
+        }
+        return query;
+    }
+
+    static ProductSummary toSummary(Document document, Set<String> fields)
+    {
+        ProductSummary summary = new ProductSummary();
+        if (fields.contains("id"))
+        {
+            summary.setId(idOf(document));
+        }
+        if (fields.contains("name"))
+        {
+            summary.setName(document.getString("name"));
+        }
+        if (fields.contains("price"))
+        {
+            summary.setPrice(priceOf(document));
+        }
+        if (fields.contains("categories"))
+        {
+            List<String> names = new ArrayList<>();
+            Object categories = document.get("fallIntoCategories");
+            if (categories instanceof Collection)
+            {
+                for (Object category : (Collection<?>) categories)
+                {
+                    if (category instanceof Document && ((Document) category).get("name") != null)
+                    {
+                        names.add(((Document) category).getString("name"));
+                    }
+                }
+            }
+            summary.setCategories(names);
+        }
+        if (fields.contains("description"))
+        {
+            summary.setDescription(document.getString("description"));
+        }
+        if (fields.contains("image_URLs"))
+        {
+            List<String> urls = new ArrayList<>();
+            Object imageURLs = document.get("image_URLs");
+            if (imageURLs instanceof Collection)
+            {
+                for (Object url : (Collection<?>) imageURLs)
+                {
+                    urls.add(url == null ? null : url.toString());
+                }
+            }
+            summary.setImage_URLs(urls);
+        }
+        if (fields.contains("sellerId") && document.get("seller") instanceof DBRef)
+        {
+            summary.setSellerId(((DBRef) document.get("seller")).getId().toString());
+        }
+        return summary;
+    }
+
+    private static String idOf(Document document)
+    {
+        Object id = document.get("_id");
+        return id == null ? null : id.toString();
+    }
+
+    //Prices are floats in the model, so the continuation tokens of both views are the same.
+    private static Float priceOf(Document document)
+    {
+        Object price = document.get("price");
+        return price instanceof Number ? ((Number) price).floatValue() : null;
+    }
+}
@@ -0,0 +1,156 @@
+package com.wissen.mandihub.mongodb.support;
+
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.SellerProductCount;
+import com.wissen.mandihub.pagination.KeysetPaginator;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Reads and writes the seller_product_counts collection, the number of products of every seller.
+ *
+ * A counter is created the first time it's read, so sellers which existed before the counters need no migration:
+ * it is inserted with no products, a fresh ObjectId as countedUpTo and the counting flag, and only then incremented
+ * by the number of products of the seller up to that id, counted on the seller.$id index, which clears the flag.
+ * While the flag is set, readers take that count themselves rather than return the partial counter. From the insert
+ * on, every new product with a higher id increments it. Product ids are ObjectIds generated when the product is
+ * created, so the only products missed are ones whose id was generated before the counter was inserted but which
+ * were written after the count. Products inserted with older ids, like the seed fixtures, must drop the counter instead, and
+ * recount repairs a counter which drifted.
+ */
+@Component
+public class SellerProductCounts
+{
+    static final String SELLER_ID_FIELD = "seller.$id";
+    static final String COUNTING_FIELD = "counting";
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+
+    /**
+     * Returns the number of products of the seller, counting them if it's the first time.
+     */
+    public long count(String sellerId)
+    {
+        Object sellerIdValue = KeysetPaginator.toIdValue(sellerId);
+        SellerProductCount counter = mongoTemplate.findById(sellerIdValue, SellerProductCount.class);
+        if (counter == null)
+        {
+            //The counter exists before the count is taken, so the products created meanwhile increment it.
+            counter = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(sellerIdValue)),
+                    new Update().setOnInsert("products", 0L).setOnInsert("countedUpTo", new ObjectId()).setOnInsert(COUNTING_FIELD, true),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), SellerProductCount.class);
+        }
+        if (!counter.isCounting())
+        {
+            return counter.getProducts();
+        }
+        return finishCount(sellerIdValue, counter);
+    }
+
+    //Counts the products up to countedUpTo and adds them to a counter which is still counting. Every request which
+    //reads the counter before the count is added takes it, so none returns the products created since the insert
+    //alone, and only the first to finish adds it, so a request which died while counting leaves no stale counter.
+    private long finishCount(Object sellerIdValue, SellerProductCount counter)
+    {
+        long products = mongoTemplate.count(new Query(Criteria.where(SELLER_ID_FIELD).is(sellerIdValue).and("_id").lte(counter.getCountedUpTo())), Product.class);
+        Query countingQuery = new Query(Criteria.where("_id").is(sellerIdValue).and("countedUpTo").is(counter.getCountedUpTo()).and(COUNTING_FIELD).is(true));
+        SellerProductCount counted = mongoTemplate.findAndModify(countingQuery, new Update().inc("products", products).unset(COUNTING_FIELD),
+                FindAndModifyOptions.options().returnNew(true), SellerProductCount.class);
+        //Otherwise another request added the count first, or the counter was dropped meanwhile.
+        return counted == null ? counter.getProducts() + products : counted.getProducts();
+    }
+
+    /**
+     * Counts the products of the seller again, e.g. to repair a counter which drifted.
+     */
+    public long recount(String sellerId)
+    {
+        invalidate(Collections.singletonList(sellerId));
+        return count(sellerId);
+    }
+
+    /**
+     * Counts products which were just created, with one unordered bulk write.
+     */
+    public void added(Collection<Product> products)
+    {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SellerProductCount.class);
+        int operations = 0;
+        for (Product product : products)
+        {
+            String sellerId = SellerReferenceResolver.sellerIdOf(product);
+            if (sellerId != null && product.getId() != null)
+            {
+                bulk.updateOne(incrementQuery(sellerId, product.getId()), incrementUpdate());
+                operations++;
+            }
+        }
+        if (operations > 0)
+        {
+            bulk.execute();
+        }
+    }
+
+    /**
+     * Sets the counters of sellers whose products were all just written, e.g. by the catalog generator.
+     */
+    public void set(Map<String, Long> productsBySellerId)
+    {
+        if (productsBySellerId.isEmpty())
+        {
+            return;
+        }
+        ObjectId countedUpTo = new ObjectId();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SellerProductCount.class);
+        for (Map.Entry<String, Long> entry : productsBySellerId.entrySet())
+        {
+            bulk.upsert(new Query(Criteria.where("_id").is(KeysetPaginator.toIdValue(entry.getKey()))),
+                    new Update().set("products", entry.getValue()).set("countedUpTo", countedUpTo).unset(COUNTING_FIELD));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Drops the counters of the sellers, which are counted again on their next read.
+     */
+    public void invalidate(Collection<String> sellerIds)
+    {
+        if (!sellerIds.isEmpty())
+        {
+            Object[] ids = sellerIds.stream().map(KeysetPaginator::toIdValue).toArray();
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), SellerProductCount.class);
+        }
+    }
+
+    /**
+     * Drops all the counters, e.g. after products were written around the application.
+     */
+    public void invalidateAll()
+    {
+        mongoTemplate.remove(new Query(), SellerProductCount.class);
+    }
+
+    //Shared with ReactiveSellerProductCounts.
+    public static Query incrementQuery(String sellerId, String productId)
+    {
+        return new Query(Criteria.where("_id").is(KeysetPaginator.toIdValue(sellerId)).and("countedUpTo").lt(KeysetPaginator.toIdValue(productId)));
+    }
+
+    public static Update incrementUpdate()
+    {
+        return new Update().inc("products", 1);
+    }
+}
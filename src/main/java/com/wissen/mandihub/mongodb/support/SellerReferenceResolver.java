@@ -0,0 +1,97 @@
+package com.wissen.mandihub.mongodb.support;
+
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.models.SellerReference;
+import com.wissen.mandihub.mongodb.repositories.SellerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Product.seller is a lazy DBRef (or a SellerReference with the model codecs), so reading products doesn't touch the sellers collection.
+ * This resolves the sellers of a batch of products with one $in query instead of one query per product.
+ */
+@Component
+public class SellerReferenceResolver
+{
+    @Autowired
+    private SellerRepository _sellerMongoRepository;
+
+
+    /**
+     * Returns the id of the seller of the product without resolving the reference.
+     */
+    public static String sellerIdOf(Product product)
+    {
+        Seller seller = product.getSeller();
+        if (seller == null)
+        {
+            return null;
+        }
+        if (seller instanceof LazyLoadingProxy)
+        {
+            Object id = ((LazyLoadingProxy) seller).toDBRef().getId();
+            return id == null ? null : id.toString();
+        }
+        return seller.getId();
+    }
+
+    /**
+     * Whether the seller is only a reference (a lazy DBRef proxy or a SellerReference) which still has to be resolved.
+     */
+    public static boolean isUnresolved(Seller seller)
+    {
+        return seller instanceof LazyLoadingProxy || seller instanceof SellerReference;
+    }
+
+    public Product resolve(Product product)
+    {
+        if (product != null)
+        {
+            resolve(Collections.singletonList(product));
+        }
+        return product;
+    }
+
+    public <C extends Collection<Product>> C resolve(C products)
+    {
+        Set<String> sellerIds = new HashSet<>();
+        for (Product product : products)
+        {
+            if (isUnresolved(product.getSeller()))
+            {
+                String sellerId = sellerIdOf(product);
+                if (sellerId != null)
+                {
+                    sellerIds.add(sellerId);
+                }
+            }
+        }
+        if (sellerIds.isEmpty())
+        {
+            return products;
+        }
+        Map<String, Seller> sellers = new HashMap<>();
+        for (Seller seller : _sellerMongoRepository.findAllById(sellerIds))
+        {
+            sellers.put(seller.getId(), seller);
+        }
+        for (Product product : products)
+        {
+            if (isUnresolved(product.getSeller()))
+            {
+                //A dangling reference becomes null, exactly as an eager DBRef would.
+                product.setSeller(sellers.get(sellerIdOf(product)));
+            }
+        }
+        return products;
+    }
+}
@@ -0,0 +1,105 @@
+package com.wissen.mandihub.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last document of a page: the value of the sort key and the document id.
+ * Encoded as url-safe base64 so clients treat it as opaque.
+ */
+public class ContinuationToken
+{
+    private static final char SEPARATOR = '\u0000';
+
+    private final String sortField;
+
+    private final Object sortValue;
+
+    private final String id;
+
+    public ContinuationToken(String sortField, Object sortValue, String id)
+    {
+        this.sortField = sortField;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public String getSortField()
+    {
+        return sortField;
+    }
+
+    public Object getSortValue()
+    {
+        return sortValue;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public String encode()
+    {
+        String type;
+        String value;
+        if (sortValue == null)
+        {
+            type = "n";
+            value = "";
+        }
+        else if (sortValue instanceof Float)
+        {
+            type = "f";
+            value = Float.toString((Float) sortValue);
+        }
+        else
+        {
+            type = "s";
+            value = sortValue.toString();
+        }
+        String raw = sortField + SEPARATOR + type + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ContinuationToken decode(String token)
+    {
+        String raw;
+        try
+        {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Malformed continuation token", e);
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 4 || parts[3].isEmpty())
+        {
+            throw new IllegalArgumentException("Malformed continuation token");
+        }
+        Object value;
+        switch (parts[1])
+        {
+            case "n":
+                value = null;
+                break;
+            case "f":
+                try
+                {
+                    value = Float.valueOf(parts[2]);
+                }
+                catch (NumberFormatException e)
+                {
+                    throw new IllegalArgumentException("Malformed continuation token", e);
+                }
+                break;
+            case "s":
+                value = parts[2];
+                break;
+            default:
+                throw new IllegalArgumentException("Malformed continuation token");
+        }
+        return new ContinuationToken(parts[0], value, parts[3]);
+    }
+}
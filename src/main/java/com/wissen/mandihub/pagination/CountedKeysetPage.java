@@ -0,0 +1,20 @@
+package com.wissen.mandihub.pagination;
+
+public class CountedKeysetPage<T> extends KeysetPage<T>
+{
+    private final long total;
+
+    public CountedKeysetPage(KeysetPage<T> page, long total)
+    {
+        super(page.getItems(), page.getNext());
+        this.total = total;
+    }
+
+    /**
+     * The number of items over all the pages.
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+}
@@ -0,0 +1,43 @@
+package com.wissen.mandihub.pagination;
+
+import java.util.List;
+
+public class KeysetPage<T>
+{
+    private List<T> items;
+
+    private String next;
+
+    public KeysetPage()
+    {
+    }
+
+    public KeysetPage(List<T> items, String next)
+    {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems()
+    {
+        return items;
+    }
+
+    public void setItems(List<T> items)
+    {
+        this.items = items;
+    }
+
+    /**
+     * Opaque continuation token for the following page, or null when this is the last page.
+     */
+    public String getNext()
+    {
+        return next;
+    }
+
+    public void setNext(String next)
+    {
+        this.next = next;
+    }
+}
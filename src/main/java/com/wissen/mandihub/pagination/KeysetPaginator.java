@@ -0,0 +1,115 @@
+package com.wissen.mandihub.pagination;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Seek-based pagination: every page is a range scan starting right after the last document of
+ * the previous page, so the cost of a page does not depend on how deep the client has paged.
+ */
+@Component
+public class KeysetPaginator
+{
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+
+    public <T> KeysetPage<T> page(Class<T> type, KeysetSort<T> sort, String after, Integer size)
+    {
+        return page(new Query(), type, sort, after, size);
+    }
+
+    /**
+     * Returns the page following {@code after} (or the first page when it is null) of the documents
+     * matching {@code query}. Throws IllegalArgumentException for malformed tokens or sizes.
+     */
+    public <T> KeysetPage<T> page(Query query, Class<T> type, KeysetSort<T> sort, String after, Integer size)
+    {
+        return page(query, type, mongoTemplate.getCollectionName(type), sort, after, size);
+    }
+
+    /**
+     * Like page(Query, Class, ...), reading the documents of the given collection as {@code type},
+     * e.g. a projection read as org.bson.Document.
+     */
+    public <T> KeysetPage<T> page(Query query, Class<T> type, String collection, KeysetSort<T> sort, String after, Integer size)
+    {
+        int pageSize = normalizeSize(size);
+        if (after != null && !after.isEmpty())
+        {
+            ContinuationToken token = ContinuationToken.decode(after);
+            if (!sort.getField().equals(token.getSortField()))
+            {
+                throw new IllegalArgumentException("The continuation token belongs to a different sort order");
+            }
+            query.addCriteria(seekCriteria(sort, token));
+        }
+        if (sort.isById())
+        {
+            query.with(Sort.by(Sort.Direction.ASC, KeysetSort.ID_FIELD));
+        }
+        else
+        {
+            query.with(Sort.by(Sort.Direction.ASC, sort.getField(), KeysetSort.ID_FIELD));
+        }
+        //Fetch one extra document to know whether there is a next page without a count query.
+        query.limit(pageSize + 1);
+        List<T> items = mongoTemplate.find(query, type, collection);
+        String next = null;
+        if (items.size() > pageSize)
+        {
+            items = items.subList(0, pageSize);
+            next = sort.tokenAfter(items.get(pageSize - 1)).encode();
+        }
+        return new KeysetPage<>(items, next);
+    }
+
+    public static int normalizeSize(Integer size)
+    {
+        if (size == null)
+        {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1)
+        {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static Criteria seekCriteria(KeysetSort<?> sort, ContinuationToken token)
+    {
+        Object lastId = toIdValue(token.getId());
+        if (sort.isById())
+        {
+            return Criteria.where(KeysetSort.ID_FIELD).gt(lastId);
+        }
+        String field = sort.getField();
+        Object value = token.getSortValue();
+        if (value == null)
+        {
+            //null sorts before every other value
+            return new Criteria().orOperator(
+                    new Criteria().andOperator(Criteria.where(field).is(null), Criteria.where(KeysetSort.ID_FIELD).gt(lastId)),
+                    Criteria.where(field).ne(null));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).gt(value),
+                new Criteria().andOperator(Criteria.where(field).is(value), Criteria.where(KeysetSort.ID_FIELD).gt(lastId)));
+    }
+
+    public static Object toIdValue(String id)
+    {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,51 @@
+package com.wissen.mandihub.pagination;
+
+import java.util.function.Function;
+
+/**
+ * A sort key for keyset pagination. Ties on the sort key are broken by {@code _id}, so the
+ * ordering is total and every document is returned exactly once while paging.
+ */
+public class KeysetSort<T>
+{
+    public static final String ID_FIELD = "_id";
+
+    private final String field;
+
+    private final Function<T, Object> sortValue;
+
+    private final Function<T, String> id;
+
+    private KeysetSort(String field, Function<T, Object> sortValue, Function<T, String> id)
+    {
+        this.field = field;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public static <T> KeysetSort<T> byId(Function<T, String> id)
+    {
+        return new KeysetSort<>(ID_FIELD, null, id);
+    }
+
+    public static <T> KeysetSort<T> by(String field, Function<T, Object> sortValue, Function<T, String> id)
+    {
+        return new KeysetSort<>(field, sortValue, id);
+    }
+
+    public String getField()
+    {
+        return field;
+    }
+
+    public boolean isById()
+    {
+        return ID_FIELD.equals(field);
+    }
+
+    public ContinuationToken tokenAfter(T last)
+    {
+        String lastId = id.apply(last);
+        return new ContinuationToken(field, isById() ? lastId : sortValue.apply(last), lastId);
+    }
+}
@@ -0,0 +1,232 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Completes prefixes of product and category names, case insensitively, from two PrefixTries.
+ *
+ * The popularity of a product name is the number of products carrying it, and the popularity of a category name
+ * is the number of products in the category plus one, so that empty categories are suggested too. Every write
+ * only adjusts the weights of the names it touches; the last name and categories of every product are kept to
+ * take them out again when it changes.
+ */
+@Component
+@ConditionalOnProperty(name = "mandihub.autocomplete.enabled", havingValue = "true", matchIfMissing = true)
+public class AutocompleteIndex implements ProductChangeListener, CategoryChangeListener
+{
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final CategoryState[] NO_CATEGORIES = new CategoryState[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final PrefixTrie productNames = new PrefixTrie(MAX_SUGGESTIONS);
+    private final PrefixTrie categoryNames = new PrefixTrie(MAX_SUGGESTIONS);
+    private final Map<String, IndexedProduct> productsById = new HashMap<>();
+    private final Map<String, CategoryState> categoriesById = new HashMap<>();
+
+
+    /**
+     * Returns up to limit product names and up to limit category names starting with the prefix; an empty
+     * prefix returns the most popular names.
+     */
+    public Suggestions complete(String prefix, int limit)
+    {
+        String key = WHITESPACE.matcher(prefix.stripLeading().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        lock.readLock().lock();
+        try
+        {
+            return new Suggestions(suggestions(productNames.complete(key), size), suggestions(categoryNames.complete(key), size));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsSaved(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                IndexedProduct previous = productsById.remove(product.getId());
+                if (previous != null)
+                {
+                    if (previous.nameKey != null)
+                    {
+                        productNames.adjust(previous.nameKey, null, -1);
+                    }
+                    for (CategoryState category : previous.categories)
+                    {
+                        count(category, -1);
+                    }
+                }
+                add(product);
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                if (!productsById.containsKey(product.getId()))
+                {
+                    add(product);
+                }
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void categorySaved(Category category)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            name(categoriesById.computeIfAbsent(category.getId(), id -> new CategoryState()), category.getName());
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void categoriesLoaded(Collection<Category> categories)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Category category : categories)
+            {
+                CategoryState state = categoriesById.computeIfAbsent(category.getId(), id -> new CategoryState());
+                if (state.name == null)
+                {
+                    name(state, category.getName());
+                }
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Product product)
+    {
+        String name = product.getName() == null ? null : product.getName().strip();
+        String nameKey = name == null || name.isEmpty() ? null : productNames.adjust(key(name), name, 1);
+        Set<CategoryState> categories = new LinkedHashSet<>();
+        if (product.getFallIntoCategories() != null)
+        {
+            for (EmbeddedCategory category : product.getFallIntoCategories())
+            {
+                if (category != null && category.getId() != null)
+                {
+                    categories.add(categoriesById.computeIfAbsent(category.getId(), id -> new CategoryState()));
+                }
+            }
+        }
+        for (CategoryState category : categories)
+        {
+            count(category, 1);
+        }
+        productsById.put(product.getId(), new IndexedProduct(nameKey, categories.toArray(NO_CATEGORIES)));
+    }
+
+    private void count(CategoryState category, int delta)
+    {
+        category.products += delta;
+        if (category.name != null)
+        {
+            categoryNames.adjust(category.nameKey, category.name, delta);
+        }
+    }
+
+    //A category counts towards its name only once its name is known, products may arrive before it.
+    private void name(CategoryState category, String name)
+    {
+        String stripped = name == null ? null : name.strip();
+        if (stripped != null && stripped.isEmpty())
+        {
+            stripped = null;
+        }
+        if (category.name != null)
+        {
+            if (category.name.equals(stripped))
+            {
+                return;
+            }
+            categoryNames.adjust(category.nameKey, null, -(category.products + 1));
+        }
+        category.name = stripped;
+        category.nameKey = stripped == null ? null : categoryNames.adjust(key(stripped), stripped, category.products + 1);
+    }
+
+    private static String key(String name)
+    {
+        return WHITESPACE.matcher(name.toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static List<Suggestion> suggestions(PrefixTrie.Entry[] entries, int size)
+    {
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(size, entries.length));
+        for (int i = 0; i < entries.length && i < size; i++)
+        {
+            suggestions.add(new Suggestion(entries[i].text, entries[i].weight));
+        }
+        return suggestions;
+    }
+
+    private static final class IndexedProduct
+    {
+        final String nameKey;
+        final CategoryState[] categories;
+
+        IndexedProduct(String nameKey, CategoryState[] categories)
+        {
+            this.nameKey = nameKey;
+            this.categories = categories;
+        }
+    }
+
+    private static final class CategoryState
+    {
+        String name;
+        String nameKey;
+        int products;
+    }
+}
@@ -0,0 +1,95 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Passes product and category writes on to every ProductChangeListener and CategoryChangeListener once they
+ * are stored in MongoDB. A failing listener is logged and skipped; it never fails the write.
+ */
+@Component
+public class CatalogChangeNotifier
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogChangeNotifier.class);
+
+    private final List<ProductChangeListener> productListeners;
+
+    private final List<CategoryChangeListener> categoryListeners;
+
+    public CatalogChangeNotifier(ObjectProvider<ProductChangeListener> productListeners, ObjectProvider<CategoryChangeListener> categoryListeners)
+    {
+        this.productListeners = productListeners.orderedStream().collect(Collectors.toList());
+        this.categoryListeners = categoryListeners.orderedStream().collect(Collectors.toList());
+    }
+
+
+    public void productSaved(Product product)
+    {
+        productsSaved(Collections.singletonList(product));
+    }
+
+    public void productsSaved(Collection<Product> products)
+    {
+        for (ProductChangeListener listener : productListeners)
+        {
+            try
+            {
+                listener.productsSaved(products);
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error("{} couldn't apply {} saved products", listener.getClass().getSimpleName(), products.size(), e);
+            }
+        }
+    }
+
+    public void categorySaved(Category category)
+    {
+        for (CategoryChangeListener listener : categoryListeners)
+        {
+            try
+            {
+                listener.categorySaved(category);
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error("{} couldn't apply the saved category {}", listener.getClass().getSimpleName(), category.getId(), e);
+            }
+        }
+    }
+
+    void productsLoaded(Collection<Product> products)
+    {
+        for (ProductChangeListener listener : productListeners)
+        {
+            listener.productsLoaded(products);
+        }
+    }
+
+    void categoriesLoaded(Collection<Category> categories)
+    {
+        for (CategoryChangeListener listener : categoryListeners)
+        {
+            listener.categoriesLoaded(categories);
+        }
+    }
+
+    boolean hasProductListeners()
+    {
+        return !productListeners.isEmpty();
+    }
+
+    boolean hasCategoryListeners()
+    {
+        return !categoryListeners.isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads every category and then every product into the change listeners once on startup, with a single cursor over
+ * each collection. It runs after the seeding and the catalog generator; writes arriving meanwhile are applied as usual.
+ */
+@Component
+public class CatalogIndexBootstrap
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogIndexBootstrap.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CatalogChangeNotifier _catalogChangeNotifier;
+
+
+    @Order(10)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup()
+    {
+        long start = System.currentTimeMillis();
+        if (_catalogChangeNotifier.hasCategoryListeners())
+        {
+            long loaded = load(Category.class, _catalogChangeNotifier::categoriesLoaded);
+            LOGGER.info("Loaded {} categories into the in-memory indexes in {} ms", loaded, System.currentTimeMillis() - start);
+        }
+        start = System.currentTimeMillis();
+        if (_catalogChangeNotifier.hasProductListeners())
+        {
+            long loaded = load(Product.class, _catalogChangeNotifier::productsLoaded);
+            LOGGER.info("Loaded {} products into the in-memory indexes in {} ms", loaded, System.currentTimeMillis() - start);
+        }
+    }
+
+    private <T> long load(Class<T> type, Consumer<List<T>> listeners)
+    {
+        long loaded = 0;
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        Query query = new Query();
+        query.cursorBatchSize(BATCH_SIZE);
+        try (CloseableIterator<T> documents = mongoTemplate.stream(query, type))
+        {
+            while (documents.hasNext())
+            {
+                batch.add(documents.next());
+                if (batch.size() == BATCH_SIZE)
+                {
+                    listeners.accept(batch);
+                    loaded += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        listeners.accept(batch);
+        return loaded + batch.size();
+    }
+}
@@ -0,0 +1,22 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Category;
+
+import java.util.Collection;
+
+/**
+ * An in-memory view of the categories which is kept current by CatalogChangeNotifier.
+ */
+public interface CategoryChangeListener
+{
+    /**
+     * The category was created or renamed; it replaces any earlier state of the same id.
+     */
+    void categorySaved(Category category);
+
+    /**
+     * The categories were read by CatalogIndexBootstrap, before any product. Categories which are already known
+     * must be left alone.
+     */
+    void categoriesLoaded(Collection<Category> categories);
+}
@@ -0,0 +1,32 @@
+package com.wissen.mandihub.search;
+
+public class CategoryFacet
+{
+    private final String id;
+
+    private final String name;
+
+    private final int count;
+
+    public CategoryFacet(String id, String name, int count)
+    {
+        this.id = id;
+        this.name = name;
+        this.count = count;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+}
@@ -0,0 +1,100 @@
+package com.wissen.mandihub.search;
+
+/**
+ * A light English stemmer: the plural and -ed/-ing rules of step 1 of the Porter algorithm, plus -ly.
+ * A final e is dropped from every stem, as -ed and -ing drop it from the word (carve, carved, carving).
+ * It conflates the inflections which matter for product search (chairs, chair; polished, polishing, polish)
+ * without the over-stemming of the full algorithm.
+ */
+final class EnglishStemmer
+{
+    private EnglishStemmer()
+    {
+    }
+
+
+    static String stem(String word)
+    {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1)))
+        {
+            return word;
+        }
+        return withoutFinalE(suffixless(plural(word)));
+    }
+
+    private static String suffixless(String stem)
+    {
+        if (stem.endsWith("eed"))
+        {
+            return stem.length() > 4 ? stem.substring(0, stem.length() - 1) : stem;
+        }
+        if (stem.endsWith("ed") && hasVowel(stem, stem.length() - 2))
+        {
+            return tidy(stem.substring(0, stem.length() - 2));
+        }
+        if (stem.endsWith("ing") && stem.length() > 5 && hasVowel(stem, stem.length() - 3))
+        {
+            return tidy(stem.substring(0, stem.length() - 3));
+        }
+        if (stem.endsWith("ly") && stem.length() > 5)
+        {
+            return stem.substring(0, stem.length() - 2);
+        }
+        return stem;
+    }
+
+    private static String withoutFinalE(String stem)
+    {
+        return stem.length() > 3 && stem.endsWith("e") ? stem.substring(0, stem.length() - 1) : stem;
+    }
+
+    private static String plural(String word)
+    {
+        if (word.endsWith("sses"))
+        {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("xes") || word.endsWith("ches") || word.endsWith("shes"))
+        {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("ies"))
+        {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is"))
+        {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    //After removing -ed or -ing, a doubled consonant is undoubled: hopp -> hop, but fall and kiss stay.
+    private static String tidy(String stem)
+    {
+        int length = stem.length();
+        if (length >= 2 && stem.charAt(length - 1) == stem.charAt(length - 2) && !isVowel(stem.charAt(length - 1))
+                && "lsz".indexOf(stem.charAt(length - 1)) < 0)
+        {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+
+    private static boolean hasVowel(String word, int end)
+    {
+        for (int i = 0; i < end; i++)
+        {
+            if (isVowel(word.charAt(i)))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVowel(char c)
+    {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+}
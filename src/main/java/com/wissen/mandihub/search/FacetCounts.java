@@ -0,0 +1,38 @@
+package com.wissen.mandihub.search;
+
+import java.util.List;
+
+/**
+ * The number of products matching a filter, the number of them in each category (most first), and the number
+ * of products in each price bucket which match the category filter alone, so that every bucket stays selectable.
+ */
+public class FacetCounts
+{
+    private final int total;
+
+    private final List<CategoryFacet> categories;
+
+    private final List<PriceFacet> prices;
+
+    public FacetCounts(int total, List<CategoryFacet> categories, List<PriceFacet> prices)
+    {
+        this.total = total;
+        this.categories = categories;
+        this.prices = prices;
+    }
+
+    public int getTotal()
+    {
+        return total;
+    }
+
+    public List<CategoryFacet> getCategories()
+    {
+        return categories;
+    }
+
+    public List<PriceFacet> getPrices()
+    {
+        return prices;
+    }
+}
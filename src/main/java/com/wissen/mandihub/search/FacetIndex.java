@@ -0,0 +1,294 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet counts over the categories and price buckets of the products, from a RoaringBitmap of product ordinals
+ * per category and per price bucket.
+ *
+ * A filter selects products in all of the given categories and in any of the given price buckets, and its bitmap
+ * is intersected once. A small filter then counts the categories of each of its products; a large one is counted
+ * against every category bitmap with an intersection count, which never builds the intersection. Without a filter the counts are the cardinalities of the bitmaps.
+ */
+@Component
+@ConditionalOnProperty(name = "mandihub.facets.enabled", havingValue = "true", matchIfMissing = true)
+public class FacetIndex implements ProductChangeListener, CategoryChangeListener
+{
+    private static final CategoryProducts[] NO_CATEGORIES = new CategoryProducts[0];
+    //Looking up the categories of a product of the filter costs about this many bitmap lookups.
+    private static final int ITERATION_COST = 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //The lower bounds of the price buckets but the first, which has none.
+    private final float[] bucketBounds;
+    private final RoaringBitmap[] productsByBucket;
+    private final Map<String, CategoryProducts> categoriesById = new HashMap<>();
+    private final List<CategoryProducts> categorySlots = new ArrayList<>();
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private int[] buckets = new int[1024];
+    private CategoryProducts[][] categories = new CategoryProducts[1024][];
+    private int maxOrdinal;
+    //The number of (product, category) pairs, the sum of the cardinalities of the category bitmaps.
+    private long memberships;
+
+    public FacetIndex(@Value("${mandihub.facets.price-buckets:10,25,50,100,250,500,1000}") float[] bucketBounds)
+    {
+        for (int i = 1; i < bucketBounds.length; i++)
+        {
+            if (!(bucketBounds[i - 1] < bucketBounds[i]))
+            {
+                throw new IllegalArgumentException("The price bucket bounds must be increasing: " + Arrays.toString(bucketBounds));
+            }
+        }
+        this.bucketBounds = bucketBounds.clone();
+        this.productsByBucket = new RoaringBitmap[bucketBounds.length + 1];
+        for (int i = 0; i < productsByBucket.length; i++)
+        {
+            productsByBucket[i] = new RoaringBitmap();
+        }
+    }
+
+
+    /**
+     * Counts the products in all of the categories and any of the price buckets; no categories or no buckets
+     * don't filter. Lists the categories with at least one product, at most limit of them.
+     */
+    public FacetCounts count(Collection<String> categoryIds, Collection<Integer> priceBuckets, int limit)
+    {
+        for (Integer bucket : priceBuckets)
+        {
+            if (bucket == null || bucket < 0 || bucket >= productsByBucket.length)
+            {
+                throw new IllegalArgumentException("The price buckets are numbered from 0 to " + (productsByBucket.length - 1) + ".");
+            }
+        }
+        lock.readLock().lock();
+        try
+        {
+            RoaringBitmap categoryFilter = null;
+            for (String categoryId : categoryIds)
+            {
+                CategoryProducts category = categoriesById.get(categoryId);
+                RoaringBitmap products = category == null ? new RoaringBitmap() : category.products;
+                categoryFilter = categoryFilter == null ? products : categoryFilter.and(products);
+            }
+            RoaringBitmap priceFilter = null;
+            for (int bucket : new LinkedHashSet<>(priceBuckets))
+            {
+                priceFilter = priceFilter == null ? productsByBucket[bucket] : priceFilter.or(productsByBucket[bucket]);
+            }
+            RoaringBitmap filter = categoryFilter == null ? priceFilter : priceFilter == null ? categoryFilter : categoryFilter.and(priceFilter);
+
+            int[] counts = new int[categorySlots.size()];
+            int total = filter == null ? ordinalsById.size() : filter.cardinality();
+            if (filter == null)
+            {
+                for (CategoryProducts category : categorySlots)
+                {
+                    counts[category.slot] = category.products.cardinality();
+                }
+            }
+            else if ((long) total * ITERATION_COST < memberships)
+            {
+                filter.forEach(ordinal ->
+                {
+                    for (CategoryProducts category : categories[ordinal])
+                    {
+                        counts[category.slot]++;
+                    }
+                });
+            }
+            else
+            {
+                RoaringBitmap dense = filter.withBitmapContainers();
+                for (CategoryProducts category : categorySlots)
+                {
+                    counts[category.slot] = dense.andCardinality(category.products);
+                }
+            }
+            List<CategoryFacet> categoryFacets = new ArrayList<>();
+            for (CategoryProducts category : categorySlots)
+            {
+                if (counts[category.slot] > 0)
+                {
+                    categoryFacets.add(new CategoryFacet(category.id, category.name, counts[category.slot]));
+                }
+            }
+            categoryFacets.sort(Comparator.comparingInt(CategoryFacet::getCount).reversed().thenComparing(CategoryFacet::getId));
+            List<PriceFacet> priceFacets = new ArrayList<>(productsByBucket.length);
+            for (int bucket = 0; bucket < productsByBucket.length; bucket++)
+            {
+                RoaringBitmap products = productsByBucket[bucket];
+                priceFacets.add(new PriceFacet(bucket, bucket == 0 ? null : bucketBounds[bucket - 1], bucket == bucketBounds.length ? null : bucketBounds[bucket],
+                        categoryFilter == null ? products.cardinality() : categoryFilter.andCardinality(products)));
+            }
+            return new FacetCounts(total, new ArrayList<>(categoryFacets.subList(0, Math.min(limit, categoryFacets.size()))), priceFacets);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsSaved(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                Integer ordinal = ordinalsById.get(product.getId());
+                if (ordinal == null)
+                {
+                    add(product);
+                    continue;
+                }
+                productsByBucket[buckets[ordinal]].remove(ordinal);
+                for (CategoryProducts category : categories[ordinal])
+                {
+                    category.products.remove(ordinal);
+                }
+                memberships -= categories[ordinal].length;
+                set(ordinal, product);
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                if (!ordinalsById.containsKey(product.getId()))
+                {
+                    add(product);
+                }
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void categorySaved(Category category)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            category(category.getId()).name = category.getName();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void categoriesLoaded(Collection<Category> categories)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Category category : categories)
+            {
+                CategoryProducts products = category(category.getId());
+                if (products.name == null)
+                {
+                    products.name = category.getName();
+                }
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Product product)
+    {
+        int ordinal = maxOrdinal++;
+        if (ordinal == buckets.length)
+        {
+            buckets = Arrays.copyOf(buckets, ordinal * 2);
+            categories = Arrays.copyOf(categories, ordinal * 2);
+        }
+        ordinalsById.put(product.getId(), ordinal);
+        set(ordinal, product);
+    }
+
+    private void set(int ordinal, Product product)
+    {
+        Set<CategoryProducts> productCategories = new LinkedHashSet<>();
+        if (product.getFallIntoCategories() != null)
+        {
+            for (EmbeddedCategory category : product.getFallIntoCategories())
+            {
+                if (category != null && category.getId() != null)
+                {
+                    productCategories.add(category(category.getId()));
+                }
+            }
+        }
+        for (CategoryProducts category : productCategories)
+        {
+            category.products.add(ordinal);
+        }
+        memberships += productCategories.size();
+        categories[ordinal] = productCategories.toArray(NO_CATEGORIES);
+        //The number of bounds at or below the price is its bucket.
+        int bucket = Arrays.binarySearch(bucketBounds, product.getPrice());
+        buckets[ordinal] = bucket >= 0 ? bucket + 1 : -(bucket + 1);
+        productsByBucket[buckets[ordinal]].add(ordinal);
+    }
+
+    private CategoryProducts category(String id)
+    {
+        return categoriesById.computeIfAbsent(id, newId ->
+        {
+            CategoryProducts category = new CategoryProducts(newId, categorySlots.size());
+            categorySlots.add(category);
+            return category;
+        });
+    }
+
+    private static final class CategoryProducts
+    {
+        final String id;
+        final int slot;
+        final RoaringBitmap products = new RoaringBitmap();
+        String name;
+
+        CategoryProducts(String id, int slot)
+        {
+            this.id = id;
+            this.slot = slot;
+        }
+    }
+}
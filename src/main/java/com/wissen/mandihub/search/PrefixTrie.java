@@ -0,0 +1,299 @@
+package com.wissen.mandihub.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A radix tree of weighted keys in which every node keeps the best entries below it, so the completions of a
+ * prefix are read off the node the prefix ends in.
+ *
+ * Chains of single children are merged into one node labelled with all their characters, and the children of
+ * a node are kept in an array sorted by their first character; the best entries of a node are an array no longer
+ * than they need to be. When the weight of an entry grows it can only move up in the lists along its path, so
+ * those are updated in place; when it shrinks or the entry is removed, the lists along the path are rebuilt from
+ * the lists of the children, which always contain the best entries of their subtrees.
+ *
+ * Not thread safe.
+ */
+final class PrefixTrie
+{
+    static final Comparator<Entry> BEST_FIRST = Comparator.<Entry>comparingLong(entry -> -entry.weight).thenComparing(entry -> entry.key);
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final int k;
+
+    private final Node root = new Node(new char[0]);
+
+    private int size;
+
+    PrefixTrie(int k)
+    {
+        this.k = k;
+    }
+
+
+    /**
+     * Adds delta to the weight of the key and returns the key of the stored entry, or null once its weight isn't
+     * positive any more and it was removed. A new entry is shown as text; an existing one keeps its text.
+     */
+    String adjust(String key, String text, long delta)
+    {
+        List<Node> path = pathTo(key, delta > 0);
+        if (path == null)
+        {
+            return null;
+        }
+        Node node = path.get(path.size() - 1);
+        Entry entry = node.entry;
+        if (entry == null)
+        {
+            if (delta <= 0)
+            {
+                return null;
+            }
+            entry = new Entry(key, key.equals(text) ? key : text, delta);
+            node.entry = entry;
+            size++;
+            promote(path, entry);
+            return entry.key;
+        }
+        entry.weight += delta;
+        if (entry.weight <= 0)
+        {
+            remove(path);
+            return null;
+        }
+        if (delta > 0)
+        {
+            promote(path, entry);
+        }
+        else
+        {
+            rebuild(path);
+        }
+        return entry.key;
+    }
+
+    long weight(String key)
+    {
+        List<Node> path = pathTo(key, false);
+        Entry entry = path == null ? null : path.get(path.size() - 1).entry;
+        return entry == null ? 0 : entry.weight;
+    }
+
+    /**
+     * Returns the best entries whose key starts with the prefix, at most k of them.
+     */
+    Entry[] complete(String prefix)
+    {
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length())
+        {
+            int index = childIndex(node, prefix.charAt(depth));
+            if (index < 0)
+            {
+                return NO_ENTRIES;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, depth);
+            if (common < child.label.length && depth + common < prefix.length())
+            {
+                return NO_ENTRIES;
+            }
+            node = child;
+            depth += common;
+        }
+        return node.top;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    //The nodes from the root to the node of the key, splitting labels and adding nodes if create is set.
+    private List<Node> pathTo(String key, boolean create)
+    {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length())
+        {
+            int index = childIndex(node, key.charAt(depth));
+            if (index < 0)
+            {
+                if (!create)
+                {
+                    return null;
+                }
+                Node leaf = new Node(key.substring(depth).toCharArray());
+                Node[] children = new Node[node.children.length + 1];
+                int at = -(index + 1);
+                System.arraycopy(node.children, 0, children, 0, at);
+                children[at] = leaf;
+                System.arraycopy(node.children, at, children, at + 1, node.children.length - at);
+                node.children = children;
+                path.add(leaf);
+                return path;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, depth);
+            if (common < child.label.length)
+            {
+                if (!create)
+                {
+                    return null;
+                }
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[]{child};
+                middle.top = child.top.clone();
+                node.children[index] = middle;
+                child = middle;
+            }
+            path.add(child);
+            node = child;
+            depth += common;
+        }
+        return path;
+    }
+
+    private void remove(List<Node> path)
+    {
+        int last = path.size() - 1;
+        Node node = path.get(last);
+        node.entry = null;
+        size--;
+        if (last > 0 && node.children.length == 0)
+        {
+            Node parent = path.get(last - 1);
+            Node[] children = new Node[parent.children.length - 1];
+            int at = Arrays.asList(parent.children).indexOf(node);
+            System.arraycopy(parent.children, 0, children, 0, at);
+            System.arraycopy(parent.children, at + 1, children, at, children.length - at);
+            parent.children = children.length == 0 ? NO_CHILDREN : children;
+            path.remove(last);
+            node = parent;
+            last--;
+        }
+        if (last > 0 && node.entry == null && node.children.length == 1)
+        {
+            Node child = node.children[0];
+            char[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+            System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+            node.label = label;
+            node.children = child.children;
+            node.entry = child.entry;
+        }
+        rebuild(path);
+    }
+
+    private void promote(List<Node> path, Entry entry)
+    {
+        for (Node node : path)
+        {
+            Entry[] top = node.top;
+            int at = Arrays.asList(top).indexOf(entry);
+            if (at < 0)
+            {
+                if (top.length < k)
+                {
+                    top = Arrays.copyOf(top, top.length + 1);
+                }
+                else if (BEST_FIRST.compare(entry, top[k - 1]) >= 0)
+                {
+                    continue;
+                }
+                top[top.length - 1] = entry;
+            }
+            Arrays.sort(top, BEST_FIRST);
+            node.top = top;
+        }
+    }
+
+    private void rebuild(List<Node> path)
+    {
+        for (int i = path.size() - 1; i >= 0; i--)
+        {
+            Node node = path.get(i);
+            List<Entry> candidates = new ArrayList<>();
+            if (node.entry != null)
+            {
+                candidates.add(node.entry);
+            }
+            for (Node child : node.children)
+            {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(BEST_FIRST);
+            node.top = candidates.isEmpty() ? NO_ENTRIES : candidates.subList(0, Math.min(k, candidates.size())).toArray(NO_ENTRIES);
+        }
+    }
+
+    private static int childIndex(Node node, char first)
+    {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            char label = node.children[middle].label[0];
+            if (label < first)
+            {
+                low = middle + 1;
+            }
+            else if (label > first)
+            {
+                high = middle - 1;
+            }
+            else
+            {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(char[] label, String key, int from)
+    {
+        int common = 0;
+        while (common < label.length && from + common < key.length() && label[common] == key.charAt(from + common))
+        {
+            common++;
+        }
+        return common;
+    }
+
+    static final class Entry
+    {
+        final String key;
+        final String text;
+        long weight;
+
+        Entry(String key, String text, long weight)
+        {
+            this.key = key;
+            this.text = text;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Node
+    {
+        char[] label;
+        Node[] children = NO_CHILDREN;
+        Entry entry;
+        Entry[] top = NO_ENTRIES;
+
+        Node(char[] label)
+        {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.wissen.mandihub.search;
+
+/**
+ * The products priced from min (inclusive) to max (exclusive); the first bucket has no min and the last no max.
+ */
+public class PriceFacet
+{
+    private final int bucket;
+
+    private final Float min;
+
+    private final Float max;
+
+    private final int count;
+
+    public PriceFacet(int bucket, Float min, Float max, int count)
+    {
+        this.bucket = bucket;
+        this.min = min;
+        this.max = max;
+        this.count = count;
+    }
+
+    public int getBucket()
+    {
+        return bucket;
+    }
+
+    public Float getMin()
+    {
+        return min;
+    }
+
+    public Float getMax()
+    {
+        return max;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package com.wissen.mandihub.search;
+
+import java.util.List;
+
+/**
+ * A page of the products of a category within a price range, in price order, with the number of products in
+ * the whole range and its lowest and highest price (null when the range is empty).
+ */
+public class PriceRange
+{
+    private final List<String> ids;
+
+    private final String next;
+
+    private final int total;
+
+    private final Float lowest;
+
+    private final Float highest;
+
+    public PriceRange(List<String> ids, String next, int total, Float lowest, Float highest)
+    {
+        this.ids = ids;
+        this.next = next;
+        this.total = total;
+        this.lowest = lowest;
+        this.highest = highest;
+    }
+
+    public List<String> getIds()
+    {
+        return ids;
+    }
+
+    public String getNext()
+    {
+        return next;
+    }
+
+    public int getTotal()
+    {
+        return total;
+    }
+
+    public Float getLowest()
+    {
+        return lowest;
+    }
+
+    public Float getHighest()
+    {
+        return highest;
+    }
+}
@@ -0,0 +1,37 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.pagination.KeysetPage;
+
+import java.util.List;
+
+public class PriceRangePage<T> extends KeysetPage<T>
+{
+    private final int total;
+
+    private final Float lowest;
+
+    private final Float highest;
+
+    public PriceRangePage(List<T> items, PriceRange range)
+    {
+        super(items, range.getNext());
+        this.total = range.getTotal();
+        this.lowest = range.getLowest();
+        this.highest = range.getHighest();
+    }
+
+    public int getTotal()
+    {
+        return total;
+    }
+
+    public Float getLowest()
+    {
+        return lowest;
+    }
+
+    public Float getHighest()
+    {
+        return highest;
+    }
+}
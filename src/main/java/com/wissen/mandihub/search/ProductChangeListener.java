@@ -0,0 +1,23 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Product;
+
+import java.util.Collection;
+
+/**
+ * An in-memory view of the products which is kept current by CatalogChangeNotifier.
+ * The seller of the products may be an unresolved reference and must not be dereferenced.
+ */
+public interface ProductChangeListener
+{
+    /**
+     * The products were created or updated; they replace any earlier state of the same ids.
+     */
+    void productsSaved(Collection<Product> products);
+
+    /**
+     * The products were read by CatalogIndexBootstrap. They may be older than a state already received
+     * through productsSaved, so products which are already known must be left alone.
+     */
+    void productsLoaded(Collection<Product> products);
+}
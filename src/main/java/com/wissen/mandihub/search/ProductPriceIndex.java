@@ -0,0 +1,296 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.pagination.ContinuationToken;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The prices of the products of every category, in price order, for price range queries without MongoDB.
+ *
+ * Every product gets an ordinal, and every category keeps one sorted long per product: the price in the high
+ * 32 bits, as an int ordered like the float, and the ordinal in the low 32 bits, which breaks ties. A range is
+ * found with two binary searches, so its size, lowest and highest price cost nothing to count, and a page is a
+ * slice of the array. Products loaded on startup are appended and the category sorted once, on its next use;
+ * saved products are inserted in place.
+ */
+@Component
+@ConditionalOnProperty(name = "mandihub.price-index.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductPriceIndex implements ProductChangeListener
+{
+    public static final String ASCENDING = "price";
+    public static final String DESCENDING = "-price";
+
+    private static final CategoryPrices[] NO_CATEGORIES = new CategoryPrices[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private final Map<String, CategoryPrices> pricesByCategory = new HashMap<>();
+    private String[] ids = new String[1024];
+    private float[] prices = new float[1024];
+    private CategoryPrices[][] categories = new CategoryPrices[1024][];
+    private int maxOrdinal;
+
+
+    @Override
+    public void productsSaved(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                Integer ordinal = ordinalsById.get(product.getId());
+                if (ordinal == null)
+                {
+                    add(product, true);
+                    continue;
+                }
+                for (CategoryPrices category : categories[ordinal])
+                {
+                    category.remove(key(prices[ordinal], ordinal));
+                }
+                set(ordinal, product, true);
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                if (!ordinalsById.containsKey(product.getId()))
+                {
+                    add(product, false);
+                }
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The products of the category priced from min to max inclusive, in the order of sort (ASCENDING or
+     * DESCENDING), after the product of the continuation token if one is given.
+     */
+    public PriceRange range(String categoryId, float min, float max, String sort, String after, int size)
+    {
+        if (!ASCENDING.equals(sort) && !DESCENDING.equals(sort))
+        {
+            throw new IllegalArgumentException("Products can only be sorted by " + ASCENDING + " or " + DESCENDING + ".");
+        }
+        ContinuationToken token = after == null ? null : ContinuationToken.decode(after);
+        if (token != null && (!sort.equals(token.getSortField()) || !(token.getSortValue() instanceof Float)))
+        {
+            throw new IllegalArgumentException("The continuation token doesn't belong to this sort order");
+        }
+        lock.readLock().lock();
+        try
+        {
+            CategoryPrices category = pricesByCategory.get(categoryId);
+            if (category != null && !category.sorted)
+            {
+                //Sorting needs the write lock, which is then downgraded to the read lock.
+                lock.readLock().unlock();
+                lock.writeLock().lock();
+                try
+                {
+                    category.sort();
+                    lock.readLock().lock();
+                }
+                finally
+                {
+                    lock.writeLock().unlock();
+                }
+            }
+            if (category == null)
+            {
+                return new PriceRange(new ArrayList<>(), null, 0, null, null);
+            }
+            return category.range(min, max, sort, token, size);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Product product, boolean sorted)
+    {
+        int ordinal = maxOrdinal++;
+        if (ordinal == ids.length)
+        {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        ids[ordinal] = product.getId();
+        ordinalsById.put(product.getId(), ordinal);
+        set(ordinal, product, sorted);
+    }
+
+    private void set(int ordinal, Product product, boolean sorted)
+    {
+        Set<CategoryPrices> productCategories = new LinkedHashSet<>();
+        if (product.getFallIntoCategories() != null)
+        {
+            for (EmbeddedCategory category : product.getFallIntoCategories())
+            {
+                if (category != null && category.getId() != null)
+                {
+                    productCategories.add(pricesByCategory.computeIfAbsent(category.getId(), id -> new CategoryPrices()));
+                }
+            }
+        }
+        //-0.0 and 0.0 are the same price, but their bits aren't.
+        float price = product.getPrice() + 0.0f;
+        prices[ordinal] = price;
+        categories[ordinal] = productCategories.toArray(NO_CATEGORIES);
+        for (CategoryPrices category : productCategories)
+        {
+            if (sorted)
+            {
+                category.insert(key(price, ordinal));
+            }
+            else
+            {
+                category.append(key(price, ordinal));
+            }
+        }
+    }
+
+    static long key(float price, int ordinal)
+    {
+        int bits = Float.floatToIntBits(price);
+        //Negative floats order backwards by their bits; flipping all but the sign bit turns that around.
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | (ordinal & 0xffffffffL);
+    }
+
+    static float priceOf(long key)
+    {
+        int bits = (int) (key >> 32);
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return Float.intBitsToFloat(bits);
+    }
+
+    private final class CategoryPrices
+    {
+        long[] keys = new long[4];
+        int size;
+        boolean sorted = true;
+
+        void append(long key)
+        {
+            if (size == keys.length)
+            {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+            sorted = false;
+        }
+
+        void insert(long key)
+        {
+            sort();
+            int at = -(Arrays.binarySearch(keys, 0, size, key) + 1);
+            if (size == keys.length)
+            {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            keys[at] = key;
+            size++;
+        }
+
+        void remove(long key)
+        {
+            sort();
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            if (at >= 0)
+            {
+                System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+                size--;
+            }
+        }
+
+        void sort()
+        {
+            if (!sorted)
+            {
+                Arrays.sort(keys, 0, size);
+                sorted = true;
+            }
+        }
+
+        PriceRange range(float min, float max, String sort, ContinuationToken token, int pageSize)
+        {
+            //Ordinals are never negative, so an ordinal of -1 (all low bits set) sorts after every product of a price.
+            int from = lowerBound(key(min + 0.0f, 0));
+            int to = lowerBound(key(max + 0.0f, -1));
+            if (from == to)
+            {
+                return new PriceRange(new ArrayList<>(), null, 0, null, null);
+            }
+            int total = to - from;
+            Float lowest = priceOf(keys[from]);
+            Float highest = priceOf(keys[to - 1]);
+            boolean ascending = ASCENDING.equals(sort);
+            if (token != null)
+            {
+                //A product unknown to this index, e.g. from a token of before a restart, skips its whole price.
+                float price = (Float) token.getSortValue() + 0.0f;
+                Integer ordinal = ordinalsById.get(token.getId());
+                if (ascending)
+                {
+                    from = Math.max(from, lowerBound(key(price, ordinal == null ? -1 : ordinal + 1)));
+                }
+                else
+                {
+                    to = Math.min(to, lowerBound(key(price, ordinal == null ? 0 : ordinal)));
+                }
+            }
+            List<String> page = new ArrayList<>(Math.max(0, Math.min(pageSize, to - from)));
+            long last = 0;
+            for (int i = 0; i < pageSize && from + i < to; i++)
+            {
+                last = keys[ascending ? from + i : to - 1 - i];
+                page.add(ids[(int) last]);
+            }
+            String next = page.size() == pageSize && to - from > pageSize
+                    ? new ContinuationToken(sort, priceOf(last), ids[(int) last]).encode()
+                    : null;
+            return new PriceRange(page, next, total, lowest, highest);
+        }
+
+        //The position of the first key which isn't less than the given one.
+        private int lowerBound(long key)
+        {
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            return at >= 0 ? at : -(at + 1);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index over the name and description of every product, ranked with BM25.
+ *
+ * Products are numbered by ordinal in the order they are indexed, and every term has a posting list of
+ * (ordinal, term frequency) pairs in ordinal order. An updated product is indexed again under a new ordinal and
+ * its old ordinal is marked deleted; once deleted ordinals make up a quarter of the index, the postings are
+ * compacted and the ordinals renumbered. Name terms count NAME_BOOST times, so a match in the name outranks one
+ * in the description. Queries merge the posting lists of their terms document at a time and keep the best hits
+ * in a bounded heap, so a search allocates nothing proportional to the catalog.
+ * The id, name and price of every product are kept to answer without MongoDB.
+ */
+@Component
+@ConditionalOnProperty(name = "mandihub.search.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSearchIndex implements ProductChangeListener
+{
+    public static final int MAX_PAGE_SIZE = 100;
+    //Ranking deeper than this costs a heap as large, and nobody pages that far through search results.
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    static final int NAME_BOOST = 3;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private String[] ids = new String[1024];
+    private String[] names = new String[1024];
+    private float[] prices = new float[1024];
+    private int[] lengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int maxOrdinal;
+    private int deletedCount;
+    private long totalLength;
+
+
+    @Override
+    public void productsSaved(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                Integer previous = ordinalsById.get(product.getId());
+                if (previous != null)
+                {
+                    delete(previous);
+                }
+                add(product);
+            }
+            if (deletedCount * 4 > maxOrdinal)
+            {
+                compact();
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(Collection<Product> products)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (Product product : products)
+            {
+                if (!ordinalsById.containsKey(product.getId()))
+                {
+                    add(product);
+                }
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the products matching any term of the query. Throws IllegalArgumentException for an empty query
+     * or a page beyond MAX_RESULT_WINDOW.
+     */
+    public SearchResult search(String query, int page, int size)
+    {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty())
+        {
+            throw new IllegalArgumentException("The query has no searchable terms.");
+        }
+        if (page < 0 || size < 1)
+        {
+            throw new IllegalArgumentException("The page must not be negative and the size must be positive.");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        int window = (page + 1) * pageSize;
+        if (window > MAX_RESULT_WINDOW)
+        {
+            throw new IllegalArgumentException("Only the first " + MAX_RESULT_WINDOW + " hits can be paged through.");
+        }
+        lock.readLock().lock();
+        try
+        {
+            return rank(terms, page, pageSize, window);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return ordinalsById.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchResult rank(List<String> terms, int page, int pageSize, int window)
+    {
+        int liveDocs = maxOrdinal - deletedCount;
+        List<Postings> lists = new ArrayList<>(terms.size());
+        List<Float> idfs = new ArrayList<>(terms.size());
+        for (String term : terms)
+        {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null)
+            {
+                lists.add(postings);
+                int documents = documentFrequency(postings);
+                idfs.add((float) Math.log(1 + (liveDocs - documents + 0.5) / (documents + 0.5)));
+            }
+        }
+        if (lists.isEmpty() || liveDocs == 0)
+        {
+            return new SearchResult(0, page, pageSize, new ArrayList<>());
+        }
+        float averageLength = (float) totalLength / liveDocs;
+        int[] cursors = new int[lists.size()];
+        //The worst of the best hits so far on top; ties go to the lower ordinal, the product indexed first.
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(window, 1024) + 1, Hit.WORST_FIRST);
+        long total = 0;
+        while (true)
+        {
+            int ordinal = Integer.MAX_VALUE;
+            for (int i = 0; i < lists.size(); i++)
+            {
+                if (cursors[i] < lists.get(i).size)
+                {
+                    ordinal = Math.min(ordinal, lists.get(i).ordinals[cursors[i]]);
+                }
+            }
+            if (ordinal == Integer.MAX_VALUE)
+            {
+                break;
+            }
+            float score = 0;
+            for (int i = 0; i < lists.size(); i++)
+            {
+                Postings postings = lists.get(i);
+                if (cursors[i] < postings.size && postings.ordinals[cursors[i]] == ordinal)
+                {
+                    float frequency = postings.frequencies[cursors[i]];
+                    score += idfs.get(i) * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * lengths[ordinal] / averageLength));
+                    cursors[i]++;
+                }
+            }
+            if (deleted.get(ordinal))
+            {
+                continue;
+            }
+            total++;
+            if (best.size() < window)
+            {
+                best.add(new Hit(ordinal, score));
+            }
+            else if (score > best.peek().score)
+            {
+                best.poll();
+                best.add(new Hit(ordinal, score));
+            }
+        }
+        Hit[] ranked = best.toArray(new Hit[0]);
+        Arrays.sort(ranked, Hit.WORST_FIRST.reversed());
+        List<SearchHit> hits = new ArrayList<>(pageSize);
+        for (int i = page * pageSize; i < ranked.length && hits.size() < pageSize; i++)
+        {
+            int hit = ranked[i].ordinal;
+            hits.add(new SearchHit(ids[hit], names[hit], prices[hit], ranked[i].score));
+        }
+        return new SearchResult(total, page, pageSize, hits);
+    }
+
+    //The postings of deleted ordinals stay until the next compaction, but must not make the term look common.
+    private int documentFrequency(Postings postings)
+    {
+        if (deletedCount == 0)
+        {
+            return postings.size;
+        }
+        int documents = 0;
+        for (int i = 0; i < postings.size; i++)
+        {
+            if (!deleted.get(postings.ordinals[i]))
+            {
+                documents++;
+            }
+        }
+        return documents;
+    }
+
+    private void add(Product product)
+    {
+        int ordinal = maxOrdinal++;
+        if (ordinal == ids.length)
+        {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        ids[ordinal] = product.getId();
+        names[ordinal] = product.getName();
+        prices[ordinal] = product.getPrice();
+        ordinalsById.put(product.getId(), ordinal);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : Tokenizer.tokenize(product.getName()))
+        {
+            frequencies.merge(term, NAME_BOOST, Integer::sum);
+            length += NAME_BOOST;
+        }
+        for (String term : Tokenizer.tokenize(product.getDescription()))
+        {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+        for (Map.Entry<String, Integer> frequency : frequencies.entrySet())
+        {
+            postingsByTerm.computeIfAbsent(frequency.getKey(), term -> new Postings()).add(ordinal, frequency.getValue());
+        }
+        lengths[ordinal] = length;
+        totalLength += length;
+    }
+
+    private void delete(int ordinal)
+    {
+        deleted.set(ordinal);
+        deletedCount++;
+        totalLength -= lengths[ordinal];
+        ordinalsById.remove(ids[ordinal]);
+        ids[ordinal] = null;
+        names[ordinal] = null;
+    }
+
+    //Drops the deleted ordinals and numbers the rest consecutively, keeping their order.
+    private void compact()
+    {
+        int[] renumbered = new int[maxOrdinal];
+        int next = 0;
+        for (int ordinal = 0; ordinal < maxOrdinal; ordinal++)
+        {
+            if (deleted.get(ordinal))
+            {
+                renumbered[ordinal] = -1;
+                continue;
+            }
+            renumbered[ordinal] = next;
+            ids[next] = ids[ordinal];
+            names[next] = names[ordinal];
+            prices[next] = prices[ordinal];
+            lengths[next] = lengths[ordinal];
+            ordinalsById.put(ids[next], next);
+            next++;
+        }
+        Arrays.fill(ids, next, maxOrdinal, null);
+        Arrays.fill(names, next, maxOrdinal, null);
+        postingsByTerm.values().removeIf(postings -> postings.renumber(renumbered) == 0);
+        maxOrdinal = next;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private static class Hit
+    {
+        static final Comparator<Hit> WORST_FIRST = Comparator.<Hit>comparingDouble(hit -> hit.score).thenComparingInt(hit -> -hit.ordinal);
+
+        final int ordinal;
+        final float score;
+
+        Hit(int ordinal, float score)
+        {
+            this.ordinal = ordinal;
+            this.score = score;
+        }
+    }
+
+    private static class Postings
+    {
+        private int[] ordinals = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        void add(int ordinal, int frequency)
+        {
+            if (size == ordinals.length)
+            {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int renumber(int[] renumbered)
+        {
+            int kept = 0;
+            for (int i = 0; i < size; i++)
+            {
+                int ordinal = renumbered[ordinals[i]];
+                if (ordinal >= 0)
+                {
+                    ordinals[kept] = ordinal;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.wissen.mandihub.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative ints in the manner of Roaring bitmaps.
+ *
+ * The ints are split by their high 16 bits into containers of at most 65536 values, kept in an array sorted by
+ * those bits. A container holds its low 16 bits as a sorted char array while it has at most ARRAY_LIMIT values,
+ * and as a 65536 bit bitmap once it has more; both take at most 8 KB, and sparse sets stay small. Intersections
+ * only visit the containers both sides have, and counting an intersection doesn't build it.
+ *
+ * Not thread safe. The results of and and or may share containers with their operands and must not be modified.
+ */
+final class RoaringBitmap
+{
+    static final int ARRAY_LIMIT = 4096;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Container[] NO_CONTAINERS = new Container[0];
+
+    private char[] keys = NO_KEYS;
+    private Container[] containers = NO_CONTAINERS;
+    private int size;
+
+
+    boolean add(int value)
+    {
+        char key = (char) (value >>> 16);
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        if (at < 0)
+        {
+            at = -(at + 1);
+            if (size == keys.length)
+            {
+                int capacity = Math.max(4, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                containers = Arrays.copyOf(containers, capacity);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(containers, at, containers, at + 1, size - at);
+            keys[at] = key;
+            containers[at] = new Container(new char[4], null, 0);
+            size++;
+        }
+        return containers[at].add((char) value);
+    }
+
+    boolean remove(int value)
+    {
+        int at = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (at < 0 || !containers[at].remove((char) value))
+        {
+            return false;
+        }
+        if (containers[at].cardinality == 0)
+        {
+            System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+            System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+            size--;
+            containers[size] = null;
+        }
+        return true;
+    }
+
+    boolean contains(int value)
+    {
+        int at = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return at >= 0 && containers[at].contains((char) value);
+    }
+
+    int cardinality()
+    {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++)
+        {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    void forEach(IntConsumer action)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            int high = keys[i] << 16;
+            Container container = containers[i];
+            if (container.bits == null)
+            {
+                for (int j = 0; j < container.cardinality; j++)
+                {
+                    action.accept(high | container.values[j]);
+                }
+                continue;
+            }
+            for (int j = 0; j < container.bits.length; j++)
+            {
+                long word = container.bits[j];
+                while (word != 0)
+                {
+                    action.accept(high | ((j << 6) + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    int andCardinality(RoaringBitmap other)
+    {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size)
+        {
+            if (keys[i] < other.keys[j])
+            {
+                i++;
+            }
+            else if (keys[i] > other.keys[j])
+            {
+                j++;
+            }
+            else
+            {
+                cardinality += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * A copy in which every container of more than 256 values is a bitmap, for a set about to be intersected with
+     * many others: counting an intersection with a bitmap costs one lookup per value of the other container.
+     */
+    RoaringBitmap withBitmapContainers()
+    {
+        RoaringBitmap result = new RoaringBitmap();
+        result.keys = Arrays.copyOf(keys, size);
+        result.containers = new Container[size];
+        result.size = size;
+        for (int i = 0; i < size; i++)
+        {
+            Container container = containers[i];
+            result.containers[i] = container.bits == null && container.cardinality > 256
+                    ? new Container(null, Container.toBits(container.values, container.cardinality), container.cardinality)
+                    : container;
+        }
+        return result;
+    }
+
+    RoaringBitmap and(RoaringBitmap other)
+    {
+        RoaringBitmap result = new RoaringBitmap();
+        result.keys = new char[Math.min(size, other.size)];
+        result.containers = new Container[result.keys.length];
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size)
+        {
+            if (keys[i] < other.keys[j])
+            {
+                i++;
+            }
+            else if (keys[i] > other.keys[j])
+            {
+                j++;
+            }
+            else
+            {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality > 0)
+                {
+                    result.keys[result.size] = keys[i];
+                    result.containers[result.size++] = container;
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    RoaringBitmap or(RoaringBitmap other)
+    {
+        RoaringBitmap result = new RoaringBitmap();
+        result.keys = new char[size + other.size];
+        result.containers = new Container[result.keys.length];
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size)
+        {
+            if (j == other.size || (i < size && keys[i] < other.keys[j]))
+            {
+                result.keys[result.size] = keys[i];
+                result.containers[result.size++] = containers[i++];
+            }
+            else if (i == size || keys[i] > other.keys[j])
+            {
+                result.keys[result.size] = other.keys[j];
+                result.containers[result.size++] = other.containers[j++];
+            }
+            else
+            {
+                result.keys[result.size] = keys[i];
+                result.containers[result.size++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return result;
+    }
+
+    //The low 16 bits of the values of one container: a sorted array of values, or a bitmap of all 65536.
+    private static final class Container
+    {
+        char[] values;
+        long[] bits;
+        int cardinality;
+
+        Container(char[] values, long[] bits, int cardinality)
+        {
+            this.values = values;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        boolean contains(char value)
+        {
+            return bits != null
+                    ? (bits[value >>> 6] & (1L << value)) != 0
+                    : Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        boolean add(char value)
+        {
+            if (bits != null)
+            {
+                long before = bits[value >>> 6];
+                bits[value >>> 6] |= 1L << value;
+                if (before == bits[value >>> 6])
+                {
+                    return false;
+                }
+                cardinality++;
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, value);
+            if (at >= 0)
+            {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT)
+            {
+                bits = toBits(values, cardinality);
+                values = null;
+                return add(value);
+            }
+            at = -(at + 1);
+            if (cardinality == values.length)
+            {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            }
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = value;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char value)
+        {
+            if (bits != null)
+            {
+                long before = bits[value >>> 6];
+                bits[value >>> 6] &= ~(1L << value);
+                if (before == bits[value >>> 6])
+                {
+                    return false;
+                }
+                cardinality--;
+                if (cardinality <= ARRAY_LIMIT)
+                {
+                    values = toValues(bits, cardinality);
+                    bits = null;
+                }
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, value);
+            if (at < 0)
+            {
+                return false;
+            }
+            System.arraycopy(values, at + 1, values, at, cardinality - at - 1);
+            cardinality--;
+            return true;
+        }
+
+        int andCardinality(Container other)
+        {
+            if (bits != null && other.bits != null)
+            {
+                int cardinality = 0;
+                for (int i = 0; i < bits.length; i++)
+                {
+                    cardinality += Long.bitCount(bits[i] & other.bits[i]);
+                }
+                return cardinality;
+            }
+            if (bits != null || other.bits != null)
+            {
+                Container array = bits == null ? this : other;
+                Container bitmap = bits == null ? other : this;
+                int cardinality = 0;
+                for (int i = 0; i < array.cardinality; i++)
+                {
+                    char value = array.values[i];
+                    if ((bitmap.bits[value >>> 6] & (1L << value)) != 0)
+                    {
+                        cardinality++;
+                    }
+                }
+                return cardinality;
+            }
+            if (this.cardinality * 16 < other.cardinality || other.cardinality * 16 < this.cardinality)
+            {
+                return gallopingAndCardinality(this.cardinality < other.cardinality ? this : other, this.cardinality < other.cardinality ? other : this);
+            }
+            //Written without branches on the comparisons, which a merge of random values would mispredict half the time.
+            int cardinality = 0;
+            int i = 0;
+            int j = 0;
+            while (i < this.cardinality && j < other.cardinality)
+            {
+                char left = values[i];
+                char right = other.values[j];
+                cardinality += left == right ? 1 : 0;
+                i += left <= right ? 1 : 0;
+                j += left >= right ? 1 : 0;
+            }
+            return cardinality;
+        }
+
+        Container and(Container other)
+        {
+            if (bits != null && other.bits != null)
+            {
+                long[] and = new long[bits.length];
+                int cardinality = 0;
+                for (int i = 0; i < bits.length; i++)
+                {
+                    and[i] = bits[i] & other.bits[i];
+                    cardinality += Long.bitCount(and[i]);
+                }
+                return cardinality > ARRAY_LIMIT ? new Container(null, and, cardinality) : new Container(toValues(and, cardinality), null, cardinality);
+            }
+            Container small = bits != null || (other.bits == null && other.cardinality < cardinality) ? other : this;
+            Container large = small == this ? other : this;
+            char[] and = new char[small.cardinality];
+            int cardinality = 0;
+            if (large.bits != null || small.cardinality * 16 < large.cardinality)
+            {
+                for (int i = 0; i < small.cardinality; i++)
+                {
+                    if (large.contains(small.values[i]))
+                    {
+                        and[cardinality++] = small.values[i];
+                    }
+                }
+                return new Container(and, null, cardinality);
+            }
+            int i = 0;
+            int j = 0;
+            while (i < small.cardinality && j < large.cardinality)
+            {
+                char left = small.values[i];
+                char right = large.values[j];
+                //Written like the merge of andCardinality; a value is only kept once it's counted.
+                and[cardinality] = left;
+                cardinality += left == right ? 1 : 0;
+                i += left <= right ? 1 : 0;
+                j += left >= right ? 1 : 0;
+            }
+            return new Container(and, null, cardinality);
+        }
+
+        Container or(Container other)
+        {
+            if (bits == null && other.bits == null && cardinality + other.cardinality <= ARRAY_LIMIT)
+            {
+                char[] or = new char[cardinality + other.cardinality];
+                int size = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality)
+                {
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j]))
+                    {
+                        or[size++] = values[i++];
+                    }
+                    else if (i == cardinality || values[i] > other.values[j])
+                    {
+                        or[size++] = other.values[j++];
+                    }
+                    else
+                    {
+                        or[size++] = values[i++];
+                        j++;
+                    }
+                }
+                return new Container(or, null, size);
+            }
+            long[] or = bits != null ? bits.clone() : toBits(values, cardinality);
+            if (other.bits != null)
+            {
+                for (int i = 0; i < or.length; i++)
+                {
+                    or[i] |= other.bits[i];
+                }
+            }
+            else
+            {
+                for (int i = 0; i < other.cardinality; i++)
+                {
+                    or[other.values[i] >>> 6] |= 1L << other.values[i];
+                }
+            }
+            int cardinality = 0;
+            for (long word : or)
+            {
+                cardinality += Long.bitCount(word);
+            }
+            return cardinality > ARRAY_LIMIT ? new Container(null, or, cardinality) : new Container(toValues(or, cardinality), null, cardinality);
+        }
+
+        //Looks every value of the small array up in the large one, which is faster than a merge of both.
+        private static int gallopingAndCardinality(Container small, Container large)
+        {
+            int cardinality = 0;
+            int from = 0;
+            for (int i = 0; i < small.cardinality && from < large.cardinality; i++)
+            {
+                int at = Arrays.binarySearch(large.values, from, large.cardinality, small.values[i]);
+                if (at >= 0)
+                {
+                    cardinality++;
+                    from = at + 1;
+                }
+                else
+                {
+                    from = -(at + 1);
+                }
+            }
+            return cardinality;
+        }
+
+        private static long[] toBits(char[] values, int cardinality)
+        {
+            long[] bits = new long[1024];
+            for (int i = 0; i < cardinality; i++)
+            {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            return bits;
+        }
+
+        private static char[] toValues(long[] bits, int cardinality)
+        {
+            char[] values = new char[Math.max(cardinality, 4)];
+            int size = 0;
+            for (int i = 0; i < bits.length; i++)
+            {
+                long word = bits[i];
+                while (word != 0)
+                {
+                    values[size++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.wissen.mandihub.search;
+
+public class SearchHit
+{
+    private final String id;
+
+    private final String name;
+
+    private final float price;
+
+    private final float score;
+
+    public SearchHit(String id, String name, float price, float score)
+    {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.score = score;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public float getPrice()
+    {
+        return price;
+    }
+
+    public float getScore()
+    {
+        return score;
+    }
+}
@@ -0,0 +1,45 @@
+package com.wissen.mandihub.search;
+
+import java.util.List;
+
+/**
+ * A page of search hits, best first, and the number of products matching at least one query term.
+ */
+public class SearchResult
+{
+    private final long total;
+
+    private final int page;
+
+    private final int size;
+
+    private final List<SearchHit> hits;
+
+    public SearchResult(long total, int page, int size, List<SearchHit> hits)
+    {
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.hits = hits;
+    }
+
+    public long getTotal()
+    {
+        return total;
+    }
+
+    public int getPage()
+    {
+        return page;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public List<SearchHit> getHits()
+    {
+        return hits;
+    }
+}
@@ -0,0 +1,24 @@
+package com.wissen.mandihub.search;
+
+public class Suggestion
+{
+    private final String name;
+
+    private final long popularity;
+
+    public Suggestion(String name, long popularity)
+    {
+        this.name = name;
+        this.popularity = popularity;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getPopularity()
+    {
+        return popularity;
+    }
+}
@@ -0,0 +1,29 @@
+package com.wissen.mandihub.search;
+
+import java.util.List;
+
+/**
+ * The completions of a prefix among the product names and among the category names, most popular first.
+ */
+public class Suggestions
+{
+    private final List<Suggestion> products;
+
+    private final List<Suggestion> categories;
+
+    public Suggestions(List<Suggestion> products, List<Suggestion> categories)
+    {
+        this.products = products;
+        this.categories = categories;
+    }
+
+    public List<Suggestion> getProducts()
+    {
+        return products;
+    }
+
+    public List<Suggestion> getCategories()
+    {
+        return categories;
+    }
+}
@@ -0,0 +1,52 @@
+package com.wissen.mandihub.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into lower case, stemmed terms: runs of letters and digits, without English stop words.
+ * Documents and queries go through the same tokenizer, so "Wooden Chairs" finds "wooden chair".
+ */
+public final class Tokenizer
+{
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "if", "in", "into", "is", "it",
+            "of", "on", "or", "so", "such", "that", "the", "their", "then", "there", "these", "this", "to", "was",
+            "will", "with"));
+
+    private Tokenizer()
+    {
+    }
+
+
+    public static List<String> tokenize(String text)
+    {
+        List<String> terms = new ArrayList<>();
+        if (text == null)
+        {
+            return terms;
+        }
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++)
+        {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c))
+            {
+                term.append(Character.toLowerCase(c));
+            }
+            else if (term.length() > 0)
+            {
+                String word = term.toString();
+                if (!STOP_WORDS.contains(word))
+                {
+                    terms.add(EnglishStemmer.stem(word));
+                }
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,203 @@
+package com.wissen.mandihub.seeding;
+
+import com.wissen.mandihub.enums.Gender;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Profile;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.models.SellerReference;
+import com.wissen.mandihub.mongodb.support.CategoryMemberships;
+import com.wissen.mandihub.mongodb.support.SellerProductCounts;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Loads a synthetic catalog for load tests, enabled by the "generate" profile (see application-generate.properties).
+ * Sellers, categories and products are written with unordered bulk inserts of mandihub.generator.batch-size documents,
+ * together with the category_products memberships of every product batch. The same seed generates the same catalog,
+ * so the seed must change to load a second catalog into the same database (seller account ids are unique).
+ */
+@Component
+@org.springframework.context.annotation.Profile("generate")
+public class CatalogGenerator
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    private static final String[] WORDS = {"handmade", "wooden", "durable", "vintage", "modern", "kitchen", "oak",
+            "bamboo", "ceramic", "steel", "cotton", "leather", "light", "heavy", "small", "large", "classic", "rustic",
+            "elegant", "simple", "solid", "natural", "polished", "organic", "portable", "compact", "set", "chair",
+            "table", "spoon", "bowl", "lamp", "shelf", "basket", "mug", "plate", "rug", "frame", "box", "jar"};
+
+    private static final String[] FIRST_NAMES = {"Peter", "Anna", "Ravi", "Maria", "John", "Li", "Fatima", "Carlos",
+            "Sofia", "Ahmed", "Emma", "Kenji", "Olga", "David", "Priya", "Lucas"};
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryMemberships _categoryMemberships;
+    @Autowired
+    private SellerProductCounts _sellerProductCounts;
+
+    @Value("${mandihub.generator.sellers:1000}")
+    private int sellers;
+    @Value("${mandihub.generator.categories:200}")
+    private int categories;
+    @Value("${mandihub.generator.products:1000000}")
+    private int products;
+    @Value("${mandihub.generator.categories-per-product.min:1}")
+    private int minCategoriesPerProduct;
+    @Value("${mandihub.generator.categories-per-product.max:4}")
+    private int maxCategoriesPerProduct;
+    @Value("${mandihub.generator.description-words.min:10}")
+    private int minDescriptionWords;
+    @Value("${mandihub.generator.description-words.max:80}")
+    private int maxDescriptionWords;
+    @Value("${mandihub.generator.skew:1.0}")
+    private double skew;
+    @Value("${mandihub.generator.seed:42}")
+    private long seed;
+    @Value("${mandihub.generator.batch-size:1000}")
+    private int batchSize;
+
+
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void generate()
+    {
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        List<String> sellerIds = generateSellers(random);
+        List<EmbeddedCategory> categoryList = generateCategories();
+        generateProducts(random, sellerIds, categoryList);
+        LOGGER.info("Generated {} sellers, {} categories and {} products in {} s", sellers, categories, products,
+                (System.currentTimeMillis() - start) / 1000);
+    }
+
+    private List<String> generateSellers(Random random)
+    {
+        List<String> ids = new ArrayList<>(sellers);
+        List<Seller> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < sellers; i++)
+        {
+            Profile profile = new Profile(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], "Seller" + i, random.nextBoolean() ? Gender.Female : Gender.Male);
+            Seller seller = new Seller("generated-" + seed + "-" + i, profile);
+            seller.setId(new ObjectId().toHexString());
+            ids.add(seller.getId());
+            batch.add(seller);
+            if (batch.size() == batchSize)
+            {
+                insert(batch, Seller.class);
+            }
+        }
+        insert(batch, Seller.class);
+        return ids;
+    }
+
+    private List<EmbeddedCategory> generateCategories()
+    {
+        List<EmbeddedCategory> embedded = new ArrayList<>(categories);
+        List<Category> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < categories; i++)
+        {
+            Category category = new Category(new ObjectId().toHexString(), "Category " + seed + "-" + i);
+            embedded.add(new EmbeddedCategory(category.getId(), category.getName()));
+            batch.add(category);
+            if (batch.size() == batchSize)
+            {
+                insert(batch, Category.class);
+            }
+        }
+        insert(batch, Category.class);
+        return embedded;
+    }
+
+    private void generateProducts(Random random, List<String> sellerIds, List<EmbeddedCategory> categoryList)
+    {
+        SkewedSampler sellerSampler = new SkewedSampler(sellerIds.size(), skew);
+        SkewedSampler categorySampler = new SkewedSampler(categoryList.size(), skew);
+        int fanOut = Math.min(maxCategoriesPerProduct, categoryList.size());
+        List<Product> batch = new ArrayList<>(batchSize);
+        Map<String, List<String>> memberships = new LinkedHashMap<>();
+        Map<String, Long> productsBySeller = new HashMap<>();
+        for (int i = 0; i < products; i++)
+        {
+            HashSet<EmbeddedCategory> fallIntoCategories = new HashSet<>();
+            List<String> categoryIds = new ArrayList<>();
+            int count = minCategoriesPerProduct + random.nextInt(Math.max(1, fanOut - minCategoriesPerProduct + 1));
+            while (categoryIds.size() < Math.min(count, fanOut))
+            {
+                EmbeddedCategory category = categoryList.get(categorySampler.next(random));
+                if (!categoryIds.contains(category.getId()))
+                {
+                    categoryIds.add(category.getId());
+                    fallIntoCategories.add(new EmbeddedCategory(category.getId(), category.getName()));
+                }
+            }
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            float price = Math.round((1 + random.nextDouble() * 999) * 100) / 100f;
+            String sellerId = sellerIds.get(sellerSampler.next(random));
+            Product product = new Product(name, description(random), price, new SellerReference(sellerId), fallIntoCategories);
+            productsBySeller.merge(sellerId, 1L, Long::sum);
+            product.setId(new ObjectId().toHexString());
+            batch.add(product);
+            memberships.put(product.getId(), categoryIds);
+            if (batch.size() == batchSize)
+            {
+                insert(batch, Product.class);
+                _categoryMemberships.insertNew(memberships);
+                memberships.clear();
+                if ((i + 1) % (batchSize * 100) == 0)
+                {
+                    LOGGER.info("Generated {} of {} products", i + 1, products);
+                }
+            }
+        }
+        insert(batch, Product.class);
+        _categoryMemberships.insertNew(memberships);
+        //The generated sellers have no other products, so their counters are known without counting.
+        _sellerProductCounts.set(productsBySeller);
+    }
+
+    private String description(Random random)
+    {
+        int words = minDescriptionWords + random.nextInt(Math.max(1, maxDescriptionWords - minDescriptionWords + 1));
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < words; i++)
+        {
+            if (i > 0)
+            {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.toString();
+    }
+
+    private <T> void insert(List<T> batch, Class<T> type)
+    {
+        if (!batch.isEmpty())
+        {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(batch).execute();
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.wissen.mandihub.seeding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.models.SellerReference;
+import com.wissen.mandihub.mongodb.support.CategoryMemberships;
+import com.wissen.mandihub.mongodb.support.SellerProductCounts;
+import com.wissen.mandihub.mongodb.support.SellerReferenceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the fixtures of mandihub.seed.location when mandihub.seed.enabled is set; otherwise startup touches no data.
+ * Seeding is idempotent: documents whose id already exists are left alone, so existing data is never deleted
+ * or overwritten and a restart with seeding still enabled writes nothing. Each collection costs one lookup
+ * of the fixture ids and at most one bulk insert.
+ */
+@Component
+@ConditionalOnProperty(name = "mandihub.seed.enabled", havingValue = "true")
+public class FixtureSeeder
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(FixtureSeeder.class);
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryMemberships _categoryMemberships;
+    @Autowired
+    private SellerProductCounts _sellerProductCounts;
+    @Autowired
+    private ObjectMapper _objectMapper;
+
+    private final Resource location;
+
+    public FixtureSeeder(@Value("${mandihub.seed.location:classpath:seed/fixtures.json}") Resource location)
+    {
+        this.location = location;
+    }
+
+
+    //Runs after IndexManager, so the unique indexes are in place.
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() throws IOException
+    {
+        SeedFixtures fixtures;
+        try (InputStream inputStream = location.getInputStream())
+        {
+            fixtures = _objectMapper.readValue(inputStream, SeedFixtures.class);
+        }
+        int sellers = insertMissing(fixtures.getSellers(), Seller.class, Seller::getId).size();
+        int categories = insertMissing(fixtures.getCategories(), Category.class, Category::getId).size();
+        List<Product> products = insertMissing(toProducts(fixtures), Product.class, Product::getId);
+        Map<String, List<String>> memberships = new LinkedHashMap<>();
+        for (Product product : products)
+        {
+            memberships.put(product.getId(), product.getFallIntoCategories().stream().map(EmbeddedCategory::getId).collect(Collectors.toList()));
+        }
+        _categoryMemberships.insertNew(memberships);
+        //The fixture product ids are older than the seller counters, so those counters are taken again.
+        _sellerProductCounts.invalidate(products.stream().map(SellerReferenceResolver::sellerIdOf).filter(Objects::nonNull).collect(Collectors.toSet()));
+        LOGGER.info("Seeded {} sellers, {} categories and {} products from {}", sellers, categories, products.size(), location);
+    }
+
+    //Embeds the category names and replaces the seller by a reference to its id.
+    private List<Product> toProducts(SeedFixtures fixtures)
+    {
+        Map<String, String> categoryNames = new HashMap<>();
+        for (Category category : fixtures.getCategories())
+        {
+            categoryNames.put(category.getId(), category.getName());
+        }
+        List<Product> products = new ArrayList<>();
+        for (Product fixture : fixtures.getProducts())
+        {
+            HashSet<EmbeddedCategory> categories = new HashSet<>();
+            for (EmbeddedCategory category : fixture.getFallIntoCategories())
+            {
+                if (!categoryNames.containsKey(category.getId()))
+                {
+                    throw new IllegalStateException("The product " + fixture.getId() + " falls into the category " + category.getId() + " which isn't a fixture");
+                }
+                categories.add(new EmbeddedCategory(category.getId(), categoryNames.get(category.getId())));
+            }
+            Product product = new Product(fixture.getName(), fixture.getDescription(), fixture.getPrice(), new SellerReference(fixture.getSeller().getId()), categories);
+            product.setId(fixture.getId());
+            product.setImage_URLs(fixture.getImage_URLs());
+            products.add(product);
+        }
+        return products;
+    }
+
+    //Inserts the fixtures whose id doesn't exist yet and returns them.
+    private <T> List<T> insertMissing(List<T> fixtures, Class<T> type, Function<T, String> id)
+    {
+        if (fixtures.isEmpty())
+        {
+            return fixtures;
+        }
+        Query query = new Query(Criteria.where("_id").in(fixtures.stream().map(id).collect(Collectors.toList())));
+        Set<String> existing = mongoTemplate.findDistinct(query, "_id", type, Object.class).stream().map(Object::toString).collect(Collectors.toSet());
+        List<T> missing = fixtures.stream().filter(fixture -> !existing.contains(id.apply(fixture))).collect(Collectors.toList());
+        if (!missing.isEmpty())
+        {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(missing).execute();
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,51 @@
+package com.wissen.mandihub.seeding;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Seller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The content of a fixture file. Every document has a fixed id; products refer to their seller and
+ * categories by id only.
+ */
+public class SeedFixtures
+{
+    private List<Seller> sellers = new ArrayList<>();
+
+    private List<Category> categories = new ArrayList<>();
+
+    private List<Product> products = new ArrayList<>();
+
+    public List<Seller> getSellers()
+    {
+        return sellers;
+    }
+
+    public void setSellers(List<Seller> sellers)
+    {
+        this.sellers = sellers;
+    }
+
+    public List<Category> getCategories()
+    {
+        return categories;
+    }
+
+    public void setCategories(List<Category> categories)
+    {
+        this.categories = categories;
+    }
+
+    public List<Product> getProducts()
+    {
+        return products;
+    }
+
+    public void setProducts(List<Product> products)
+    {
+        this.products = products;
+    }
+}
@@ -0,0 +1,32 @@
+package com.wissen.mandihub.seeding;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks indexes 0..size-1 with a Zipf-like distribution: index i has a weight of 1/(i+1)^skew.
+ * A skew of 0 is uniform; around 1 a few sellers and categories get most of the products, as in a real catalog.
+ */
+class SkewedSampler
+{
+    private final double[] cumulative;
+
+    SkewedSampler(int size, double skew)
+    {
+        cumulative = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++)
+        {
+            total += 1.0 / Math.pow(i + 1, skew);
+            cumulative[i] = total;
+        }
+    }
+
+
+    int next(Random random)
+    {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.wissen.mandihub.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes a whole collection as newline delimited JSON while iterating a live Mongo cursor.
+ * Only one cursor batch is held in memory at a time, and the cursor is closed as soon as the
+ * client goes away because the next write fails.
+ */
+@Component
+public class NdjsonStreamer
+{
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper _objectMapper;
+
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(Class<T> type, Integer batchSize)
+    {
+        return stream(type, batchSize, batch -> { });
+    }
+
+    /**
+     * Like {@link #stream(Class, Integer)}, but every batch is handed to {@code beforeWrite} first,
+     * e.g. to resolve the references of the whole batch at once.
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(Class<T> type, Integer batchSize, Consumer<List<T>> beforeWrite)
+    {
+        int cursorBatchSize = batchSize == null ? DEFAULT_BATCH_SIZE : Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        StreamingResponseBody body = outputStream ->
+        {
+            Query query = new Query().cursorBatchSize(cursorBatchSize);
+            ObjectWriter writer = _objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator generator = _objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            List<T> batch = new ArrayList<>(cursorBatchSize);
+            try (CloseableIterator<T> cursor = mongoTemplate.stream(query, type))
+            {
+                while (cursor.hasNext())
+                {
+                    batch.add(cursor.next());
+                    if (batch.size() == cursorBatchSize)
+                    {
+                        writeBatch(batch, beforeWrite, writer, generator);
+                    }
+                }
+                writeBatch(batch, beforeWrite, writer, generator);
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    //Push every cursor batch to the client so nothing accumulates in the response buffer.
+    private static <T> void writeBatch(List<T> batch, Consumer<List<T>> beforeWrite, ObjectWriter writer, JsonGenerator generator) throws IOException
+    {
+        if (batch.isEmpty())
+        {
+            generator.flush();
+            return;
+        }
+        beforeWrite.accept(batch);
+        for (T document : batch)
+        {
+            writer.writeValue(generator, document);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        batch.clear();
+    }
+}
@@ -0,0 +1,197 @@
+package com.wissen.mandihub.mongodb.codecs;
+
+import com.mongodb.MongoClientSettings;
+import com.wissen.mandihub.enums.Gender;
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.mongodb.models.Profile;
+import com.wissen.mandihub.mongodb.models.Seller;
+import com.wissen.mandihub.mongodb.models.SellerReference;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The codecs must write exactly what the reflective MappingMongoConverter writes, minus _class, so that
+ * turning them on or off never changes the stored documents or the documents the queries match.
+ * Documents are compared as BSON, the way they are sent to MongoDB, and decoded from BSON, the way they are read.
+ */
+class ModelCodecsTest
+{
+    private static final CodecRegistry REGISTRY = MongoClientSettings.getDefaultCodecRegistry();
+    private static final String OBJECT_ID = "61d5c2a9e4b0a1c2d3e4f600";
+
+    private MappingMongoConverter reflective;
+    private CodecMappingMongoConverter codecs;
+
+
+    @BeforeEach
+    void createConverters()
+    {
+        MongoMappingContext context = new MongoMappingContext();
+        context.afterPropertiesSet();
+        reflective = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        reflective.afterPropertiesSet();
+        codecs = new CodecMappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        codecs.afterPropertiesSet();
+    }
+
+    @Test
+    void productsMatchTheReflectiveMapping()
+    {
+        for (Product product : products())
+        {
+            BsonDocument written = assertWrittenLikeReflectively(product);
+            Product read = codecs.read(Product.class, decode(written));
+            assertThat(read).usingRecursiveComparison().ignoringCollectionOrder().isEqualTo(expectedRead(product, written));
+            assertEquals(product.getSeller() == null ? null : product.getSeller().getId(), read.getSeller() == null ? null : read.getSeller().getId());
+        }
+    }
+
+    @Test
+    void sellersMatchTheReflectiveMapping()
+    {
+        for (Seller seller : sellers())
+        {
+            BsonDocument written = assertWrittenLikeReflectively(seller);
+            Seller read = codecs.read(Seller.class, decode(written));
+            assertThat(read).usingRecursiveComparison().isEqualTo(seller);
+            assertThat(read).usingRecursiveComparison().isEqualTo(reflective.read(Seller.class, decode(written)));
+        }
+    }
+
+    @Test
+    void categoriesMatchTheReflectiveMapping()
+    {
+        for (Category category : Arrays.asList(new Category(OBJECT_ID, "Furniture"), new Category("furniture", "Furniture"),
+                new Category("Furniture"), new Category(OBJECT_ID, null)))
+        {
+            BsonDocument written = assertWrittenLikeReflectively(category);
+            Category read = codecs.read(Category.class, decode(written));
+            assertThat(read).usingRecursiveComparison().isEqualTo(category);
+            assertThat(read).usingRecursiveComparison().isEqualTo(reflective.read(Category.class, decode(written)));
+        }
+    }
+
+    @Test
+    void documentsWrittenReflectivelyAreReadBack()
+    {
+        //Documents which were stored before the codecs, with _class and the float price of the reflective mapping.
+        for (Product product : products())
+        {
+            Document document = new Document();
+            reflective.write(product, document);
+            Product read = codecs.read(Product.class, decode(toBson(document)));
+            assertThat(read).usingRecursiveComparison().ignoringCollectionOrder().isEqualTo(expectedRead(product, toBson(document)));
+        }
+        for (Seller seller : sellers())
+        {
+            Document document = new Document();
+            reflective.write(seller, document);
+            assertThat(codecs.read(Seller.class, decode(toBson(document)))).usingRecursiveComparison().isEqualTo(seller);
+        }
+    }
+
+    //Writes the value with both converters and checks that the BSON is the same except for the _class of the reflective one.
+    private BsonDocument assertWrittenLikeReflectively(Object value)
+    {
+        Document expected = new Document();
+        reflective.write(value, expected);
+        expected.remove("_class");
+        Document actual = new Document();
+        codecs.write(value, actual);
+        assertFalse(actual.containsKey("_class"));
+        BsonDocument written = toBson(actual);
+        assertEquals(toBson(expected), written, value.getClass().getSimpleName());
+        return written;
+    }
+
+    //Null collections aren't stored, so both mappings read them back as the empty collections of the model. The reflective
+    //mapping can't read the lazy seller DBRef without a database though, so products with a seller expect the original.
+    private Product expectedRead(Product product, BsonDocument written)
+    {
+        return product.getSeller() == null ? reflective.read(Product.class, decode(written)) : product;
+    }
+
+    private static BsonDocument toBson(Document document)
+    {
+        return document.toBsonDocument(BsonDocument.class, REGISTRY);
+    }
+
+    //Decodes the document the way the driver hands it to the converter.
+    private static Document decode(BsonDocument bson)
+    {
+        return REGISTRY.get(Document.class).decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+    }
+
+    private static List<Product> products()
+    {
+        List<Product> products = new ArrayList<>();
+        HashSet<EmbeddedCategory> categories = new HashSet<>();
+        categories.add(new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f500", "Furniture"));
+        categories.add(new EmbeddedCategory("kitchen", "Kitchen"));
+        categories.add(new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f502", null));
+        Product full = new Product("Walnut Table", "A table.", 234.2f, new SellerReference("61d5c2a9e4b0a1c2d3e4f400"), categories);
+        full.setId(OBJECT_ID);
+        full.setImage_URLs(new ArrayList<>(Arrays.asList("https://example.com/1.jpg", "https://example.com/2.jpg")));
+        products.add(full);
+
+        //A string id, a seller with a string id and one category.
+        HashSet<EmbeddedCategory> oneCategory = new HashSet<>();
+        oneCategory.add(new EmbeddedCategory("61d5c2a9e4b0a1c2d3e4f501", "Chairs"));
+        Product stringIds = new Product("Chair", "", 0.1f, new SellerReference("seller-1"), oneCategory);
+        stringIds.setId("product-1");
+        products.add(stringIds);
+
+        //No id yet, no seller, no description, no categories and no images.
+        Product sparse = new Product("Spoon", null, -0.0f, null, new HashSet<>());
+        sparse.setImage_URLs(null);
+        sparse.setFallIntoCategories(null);
+        products.add(sparse);
+
+        Product extremes = new Product(null, null, Float.MAX_VALUE, null, new HashSet<>());
+        extremes.setId(OBJECT_ID);
+        products.add(extremes);
+        return products;
+    }
+
+    private static List<Seller> sellers()
+    {
+        List<Seller> sellers = new ArrayList<>();
+        Profile profile = new Profile("Asha", "Rao", Gender.Female);
+        profile.setWebsite("https://example.com");
+        profile.setBirthday(new Date(-86_400_000L * 365 * 5));
+        profile.setAddress("12 Market Road");
+        profile.setEmailAddress("asha@example.com");
+        Seller full = new Seller("asha", profile);
+        full.setId("61d5c2a9e4b0a1c2d3e4f400");
+        sellers.add(full);
+
+        //Only some of the profile, a string id.
+        Seller partial = new Seller("ravi", new Profile("Ravi", null, Gender.Male));
+        partial.setId("seller-1");
+        sellers.add(partial);
+
+        sellers.add(new Seller("anonymous", null));
+        sellers.add(new Seller(null, new Profile(null, null, null)));
+        return sellers;
+    }
+}
@@ -0,0 +1,220 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.Category;
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FacetIndexTest
+{
+    private static final float[] BOUNDS = {10, 25, 50, 100, 250, 500, 1000};
+    private static final int CATEGORIES = 40;
+    private static final int PRODUCTS = 30_000;
+
+    private final Random random = new Random(7);
+    private final Map<String, Product> products = new LinkedHashMap<>();
+    private FacetIndex index;
+
+
+    @BeforeEach
+    void load()
+    {
+        index = new FacetIndex(BOUNDS);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++)
+        {
+            categories.add(new Category("c" + i, "Category " + i));
+        }
+        index.categoriesLoaded(categories);
+        for (int i = 0; i < PRODUCTS; i++)
+        {
+            Product product = randomProduct("p" + i);
+            products.put(product.getId(), product);
+        }
+        index.productsLoaded(products.values());
+    }
+
+    @Test
+    void countsMatchAScanOfTheProducts()
+    {
+        //No filter, a broad filter counted against every category bitmap and selective ones counted per product.
+        assertCounts(List.of(), List.of());
+        assertCounts(List.of(), List.of(4, 5, 6, 7));
+        assertCounts(List.of(), List.of(0));
+        assertCounts(List.of("c0"), List.of());
+        assertCounts(List.of("c0", "c1"), List.of());
+        assertCounts(List.of("c0", "c1", "c2"), List.of(3));
+        assertCounts(List.of("c39"), List.of(0, 7));
+        assertCounts(List.of("unknown"), List.of());
+        for (int i = 0; i < 200; i++)
+        {
+            assertCounts(randomCategories(), randomBuckets());
+        }
+    }
+
+    @Test
+    void countsFollowSavedProducts()
+    {
+        List<Product> saved = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++)
+        {
+            //Updates of existing products, with new categories and prices, and new products.
+            String id = random.nextInt(4) == 0 ? "new" + i : "p" + random.nextInt(PRODUCTS);
+            Product product = randomProduct(id);
+            products.put(id, product);
+            saved.add(product);
+            if (saved.size() == 100)
+            {
+                index.productsSaved(saved);
+                saved.clear();
+            }
+        }
+        index.productsSaved(saved);
+        index.categorySaved(new Category("c3", "Renamed"));
+        assertCounts(List.of(), List.of());
+        for (int i = 0; i < 100; i++)
+        {
+            assertCounts(randomCategories(), randomBuckets());
+        }
+        CategoryFacet renamed = index.count(List.of("c3"), List.of(), CATEGORIES).getCategories().stream()
+                .filter(facet -> facet.getId().equals("c3")).findFirst().orElseThrow();
+        assertEquals("Renamed", renamed.getName());
+    }
+
+    @Test
+    void limitKeepsTheLargestCategories()
+    {
+        FacetCounts all = index.count(List.of(), List.of(2), CATEGORIES);
+        FacetCounts top = index.count(List.of(), List.of(2), 5);
+        assertEquals(5, top.getCategories().size());
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(all.getCategories().get(i).getId(), top.getCategories().get(i).getId());
+        }
+    }
+
+    @Test
+    void rejectsUnknownBuckets()
+    {
+        assertThrows(IllegalArgumentException.class, () -> index.count(List.of(), List.of(BOUNDS.length + 1), 10));
+        assertThrows(IllegalArgumentException.class, () -> index.count(List.of(), List.of(-1), 10));
+        assertThrows(IllegalArgumentException.class, () -> new FacetIndex(new float[]{10, 10}));
+    }
+
+    private void assertCounts(List<String> categoryIds, List<Integer> buckets)
+    {
+        int total = 0;
+        Map<String, Integer> categoryCounts = new HashMap<>();
+        int[] bucketCounts = new int[BOUNDS.length + 1];
+        for (Product product : products.values())
+        {
+            Set<String> productCategories = categoryIdsOf(product);
+            boolean inCategories = productCategories.containsAll(categoryIds);
+            if (inCategories)
+            {
+                bucketCounts[bucketOf(product.getPrice())]++;
+            }
+            if (inCategories && (buckets.isEmpty() || buckets.contains(bucketOf(product.getPrice()))))
+            {
+                total++;
+                for (String categoryId : productCategories)
+                {
+                    categoryCounts.merge(categoryId, 1, Integer::sum);
+                }
+            }
+        }
+        String filter = categoryIds + " " + buckets;
+        FacetCounts counts = index.count(categoryIds, buckets, CATEGORIES);
+        assertEquals(total, counts.getTotal(), filter);
+        Map<String, Integer> actual = new HashMap<>();
+        int previous = Integer.MAX_VALUE;
+        for (CategoryFacet facet : counts.getCategories())
+        {
+            actual.put(facet.getId(), facet.getCount());
+            assertEquals(true, facet.getCount() <= previous, "categories in count order, " + filter);
+            previous = facet.getCount();
+        }
+        assertEquals(categoryCounts, actual, filter);
+        assertEquals(BOUNDS.length + 1, counts.getPrices().size());
+        for (PriceFacet facet : counts.getPrices())
+        {
+            assertEquals(bucketCounts[facet.getBucket()], facet.getCount(), "bucket " + facet.getBucket() + ", " + filter);
+        }
+    }
+
+    private Product randomProduct(String id)
+    {
+        HashSet<EmbeddedCategory> categories = new HashSet<>();
+        int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++)
+        {
+            //Skewed, so a few categories are large and most are small.
+            int category = (int) (CATEGORIES * Math.pow(random.nextDouble(), 3));
+            categories.add(new EmbeddedCategory("c" + category, "Category " + category));
+        }
+        //Some prices on the bounds, which belong to the bucket above.
+        float price = random.nextInt(10) == 0 ? BOUNDS[random.nextInt(BOUNDS.length)] : Math.round(random.nextDouble() * 150_000) / 100f;
+        Product product = new Product("Product " + id, "", price, null, categories);
+        product.setId(id);
+        return product;
+    }
+
+    private List<String> randomCategories()
+    {
+        List<String> categoryIds = new ArrayList<>();
+        int count = random.nextInt(3);
+        for (int i = 0; i < count; i++)
+        {
+            categoryIds.add("c" + (int) (CATEGORIES * Math.pow(random.nextDouble(), 2)));
+        }
+        return categoryIds;
+    }
+
+    private List<Integer> randomBuckets()
+    {
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket <= BOUNDS.length; bucket++)
+        {
+            if (random.nextInt(3) == 0)
+            {
+                buckets.add(bucket);
+            }
+        }
+        Collections.shuffle(buckets, random);
+        return buckets;
+    }
+
+    private static Set<String> categoryIdsOf(Product product)
+    {
+        Set<String> ids = new HashSet<>();
+        for (EmbeddedCategory category : product.getFallIntoCategories())
+        {
+            ids.add(category.getId());
+        }
+        return ids;
+    }
+
+    private static int bucketOf(float price)
+    {
+        int bucket = 0;
+        while (bucket < BOUNDS.length && price >= BOUNDS[bucket])
+        {
+            bucket++;
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,154 @@
+package com.wissen.mandihub.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PrefixTrieTest
+{
+    private static final int K = 5;
+
+    private final Random random = new Random(11);
+
+
+    @Test
+    void completionsMatchASortedMapAfterRandomAdjustments()
+    {
+        //Few letters and short keys, so keys are prefixes of each other and nodes are split and merged all the time.
+        String[] keys = randomKeys(400, 3, 6);
+        PrefixTrie trie = new PrefixTrie(K);
+        TreeMap<String, Long> expected = new TreeMap<>();
+        for (int step = 0; step < 100_000; step++)
+        {
+            String key = keys[random.nextInt(keys.length)];
+            long delta = random.nextInt(7) - 3;
+            String stored = trie.adjust(key, key, delta);
+            Long weight = expected.get(key);
+            if (weight != null || delta > 0)
+            {
+                long adjusted = (weight == null ? 0 : weight) + delta;
+                if (adjusted > 0)
+                {
+                    expected.put(key, adjusted);
+                }
+                else
+                {
+                    expected.remove(key);
+                }
+            }
+            assertEquals(expected.containsKey(key) ? key : null, stored, "adjust " + key + " by " + delta);
+            if (step % 50 == 0)
+            {
+                String prefix = key.substring(0, random.nextInt(key.length() + 1));
+                assertEquals(complete(expected, prefix), complete(trie, prefix), "complete " + prefix + " at step " + step);
+                assertEquals(expected.size(), trie.size());
+            }
+        }
+        for (String key : keys)
+        {
+            assertEquals(expected.getOrDefault(key, 0L), trie.weight(key), key);
+        }
+    }
+
+    @Test
+    void removingEveryKeyEmptiesTheTrie()
+    {
+        String[] keys = randomKeys(300, 4, 8);
+        PrefixTrie trie = new PrefixTrie(K);
+        TreeMap<String, Long> expected = new TreeMap<>();
+        for (String key : keys)
+        {
+            long weight = 1 + random.nextInt(20);
+            trie.adjust(key, key, weight);
+            expected.merge(key, weight, Long::sum);
+        }
+        assertEquals(expected.size(), trie.size());
+        //Removals in random order collapse the nodes left with a single child.
+        List<String> remaining = new ArrayList<>(expected.keySet());
+        while (!remaining.isEmpty())
+        {
+            String key = remaining.remove(random.nextInt(remaining.size()));
+            assertNull(trie.adjust(key, key, -expected.remove(key)));
+            for (int i = 0; i < 3 && !remaining.isEmpty(); i++)
+            {
+                String other = remaining.get(random.nextInt(remaining.size()));
+                String prefix = other.substring(0, random.nextInt(other.length() + 1));
+                assertEquals(complete(expected, prefix), complete(trie, prefix), "complete " + prefix);
+            }
+        }
+        assertEquals(0, trie.size());
+        assertEquals(0, trie.complete("").length);
+        assertEquals(0, trie.complete("a").length);
+    }
+
+    @Test
+    void completesPrefixesWhichEndInsideALabel()
+    {
+        PrefixTrie trie = new PrefixTrie(K);
+        trie.adjust("walnut table", "Walnut Table", 3);
+        trie.adjust("walnut tray", "Walnut Tray", 5);
+        trie.adjust("wall lamp", "Wall Lamp", 1);
+        assertEquals(List.of("walnut tray=5", "walnut table=3"), complete(trie, "waln"));
+        assertEquals(List.of("walnut tray=5", "walnut table=3", "wall lamp=1"), complete(trie, "wa"));
+        assertEquals(List.of("walnut table=3"), complete(trie, "walnut tab"));
+        assertEquals(List.of(), complete(trie, "walnut tables"));
+        assertEquals(List.of(), complete(trie, "wx"));
+        assertEquals("Walnut Table", trie.complete("walnut tab")[0].text);
+        //An existing entry keeps the text it was added with.
+        trie.adjust("walnut table", "WALNUT TABLE", 1);
+        assertEquals("Walnut Table", trie.complete("walnut tab")[0].text);
+    }
+
+    @Test
+    void weightsWhichAreNeverPositiveAddNothing()
+    {
+        PrefixTrie trie = new PrefixTrie(K);
+        assertNull(trie.adjust("oak", "oak", 0));
+        assertNull(trie.adjust("oak", "oak", -2));
+        assertEquals(0, trie.size());
+        assertEquals(0, trie.complete("o").length);
+    }
+
+    private String[] randomKeys(int count, int letters, int maxLength)
+    {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++)
+        {
+            StringBuilder key = new StringBuilder();
+            int length = 1 + random.nextInt(maxLength);
+            for (int j = 0; j < length; j++)
+            {
+                key.append((char) ('a' + random.nextInt(letters)));
+            }
+            keys[i] = key.toString();
+        }
+        return keys;
+    }
+
+    //The best K keys of the prefix: the highest weight first, ties in key order.
+    private static List<String> complete(TreeMap<String, Long> weights, String prefix)
+    {
+        return weights.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(K)
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .toList();
+    }
+
+    private static List<String> complete(PrefixTrie trie, String prefix)
+    {
+        List<String> completions = new ArrayList<>();
+        for (PrefixTrie.Entry entry : trie.complete(prefix))
+        {
+            completions.add(entry.key + "=" + entry.weight);
+        }
+        return completions;
+    }
+}
@@ -0,0 +1,170 @@
+package com.wissen.mandihub.search;
+
+import com.wissen.mandihub.mongodb.models.EmbeddedCategory;
+import com.wissen.mandihub.mongodb.models.Product;
+import com.wissen.mandihub.pagination.ContinuationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductPriceIndexTest
+{
+    private static final float[] PRICES = {Float.NEGATIVE_INFINITY, -1e9f, -1.5f, -0.5f, -Float.MIN_VALUE, 0f,
+            Float.MIN_VALUE, 0.5f, 1f, 2f, 1e9f, Float.MAX_VALUE, Float.POSITIVE_INFINITY};
+
+    private final Random random = new Random(5);
+
+
+    @Test
+    void keysOrderLikeTheirPricesThenOrdinals()
+    {
+        for (int i = 0; i < PRICES.length; i++)
+        {
+            assertEquals(PRICES[i], ProductPriceIndex.priceOf(ProductPriceIndex.key(PRICES[i], 3)));
+            assertTrue(ProductPriceIndex.key(PRICES[i], 1) < ProductPriceIndex.key(PRICES[i], 2));
+            assertTrue(ProductPriceIndex.key(PRICES[i], Integer.MAX_VALUE) < ProductPriceIndex.key(PRICES[i], -1), "-1 sorts after every ordinal");
+            if (i > 0)
+            {
+                assertTrue(ProductPriceIndex.key(PRICES[i - 1], Integer.MAX_VALUE) < ProductPriceIndex.key(PRICES[i], 0), PRICES[i - 1] + " < " + PRICES[i]);
+            }
+        }
+        for (int i = 0; i < 100_000; i++)
+        {
+            float left = randomPrice();
+            float right = randomPrice();
+            int ordinal = random.nextInt(Integer.MAX_VALUE);
+            assertEquals(Integer.signum(Float.compare(left, right)),
+                    Long.signum(Long.compare(ProductPriceIndex.key(left, ordinal), ProductPriceIndex.key(right, ordinal))), left + " " + right);
+        }
+    }
+
+    @Test
+    void negativeZeroIsPricedAsZero()
+    {
+        ProductPriceIndex index = new ProductPriceIndex();
+        index.productsLoaded(List.of(product("a", -0.0f), product("b", 0f), product("c", -1f)));
+        index.productsSaved(List.of(product("d", -0.0f)));
+        assertEquals(List.of("a", "b", "d"), index.range("cat", 0f, 0f, ProductPriceIndex.ASCENDING, null, 10).getIds());
+        assertEquals(List.of("a", "b", "d"), index.range("cat", -0.0f, -0.0f, ProductPriceIndex.ASCENDING, null, 10).getIds());
+        assertEquals(List.of("c", "a", "b", "d"), index.range("cat", -1f, 0f, ProductPriceIndex.ASCENDING, null, 10).getIds());
+        assertEquals(0f, index.range("cat", 0f, 1f, ProductPriceIndex.ASCENDING, null, 10).getLowest());
+    }
+
+    @Test
+    void pagesInBothDirectionsAcrossEqualPrices()
+    {
+        ProductPriceIndex index = new ProductPriceIndex();
+        //Few distinct prices, so pages start and end in the middle of a run of equal prices.
+        float[] prices = {-2f, 0f, 1.25f, 1.25f, 3f, 7.5f};
+        Map<String, Float> expected = new LinkedHashMap<>();
+        List<Product> loaded = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+        {
+            Product product = product("p" + i, prices[random.nextInt(prices.length)]);
+            expected.put(product.getId(), product.getPrice());
+            loaded.add(product);
+        }
+        index.productsLoaded(loaded);
+        for (int i = 0; i < 40; i++)
+        {
+            Product product = product(random.nextInt(3) == 0 ? "new" + i : "p" + random.nextInt(300), prices[random.nextInt(prices.length)]);
+            expected.put(product.getId(), product.getPrice());
+            index.productsSaved(List.of(product));
+        }
+        List<String> order = new ArrayList<>(expected.keySet());
+        for (float[] bounds : new float[][]{{-10f, 10f}, {0f, 1.25f}, {-2f, -2f}, {1.25f, 7.5f}, {1.3f, 2.9f}})
+        {
+            //Equal prices are in the order the products were first indexed.
+            List<String> ascending = expected.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= bounds[0] && entry.getValue() <= bounds[1])
+                    .sorted(Comparator.<Map.Entry<String, Float>>comparingDouble(Map.Entry::getValue).thenComparingInt(entry -> order.indexOf(entry.getKey())))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            List<String> descending = new ArrayList<>(ascending);
+            Collections.reverse(descending);
+            for (int size : new int[]{1, 7, 50, 1000})
+            {
+                assertEquals(ascending, walk(index, bounds, ProductPriceIndex.ASCENDING, size, ascending.size()), "ascending by " + size);
+                assertEquals(descending, walk(index, bounds, ProductPriceIndex.DESCENDING, size, ascending.size()), "descending by " + size);
+            }
+            PriceRange first = index.range("cat", bounds[0], bounds[1], ProductPriceIndex.ASCENDING, null, 5);
+            if (ascending.isEmpty())
+            {
+                assertNull(first.getLowest());
+                assertNull(first.getHighest());
+            }
+            else
+            {
+                assertEquals(expected.get(ascending.get(0)), first.getLowest());
+                assertEquals(expected.get(descending.get(0)), first.getHighest());
+            }
+        }
+    }
+
+    @Test
+    void rejectsTokensOfAnotherSortOrder()
+    {
+        ProductPriceIndex index = new ProductPriceIndex();
+        index.productsLoaded(List.of(product("a", 1f), product("b", 2f)));
+        String next = index.range("cat", 0f, 10f, ProductPriceIndex.ASCENDING, null, 1).getNext();
+        assertThrows(IllegalArgumentException.class, () -> index.range("cat", 0f, 10f, ProductPriceIndex.DESCENDING, next, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.range("cat", 0f, 10f, "name", null, 1));
+        String byName = new ContinuationToken(ProductPriceIndex.ASCENDING, "b", "b").encode();
+        assertThrows(IllegalArgumentException.class, () -> index.range("cat", 0f, 10f, ProductPriceIndex.ASCENDING, byName, 1));
+        assertEquals(0, index.range("other", 0f, 10f, ProductPriceIndex.ASCENDING, null, 1).getTotal());
+    }
+
+    //Follows the continuation tokens to the last page, checking the total of every page.
+    private static List<String> walk(ProductPriceIndex index, float[] bounds, String sort, int size, int total)
+    {
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        do
+        {
+            PriceRange page = index.range("cat", bounds[0], bounds[1], sort, after, size);
+            assertEquals(total, page.getTotal());
+            assertTrue(page.getIds().size() <= size);
+            ids.addAll(page.getIds());
+            after = page.getNext();
+        }
+        while (after != null && ids.size() <= total);
+        return ids;
+    }
+
+    private float randomPrice()
+    {
+        switch (random.nextInt(4))
+        {
+            case 0:
+                return PRICES[random.nextInt(PRICES.length)];
+            case 1:
+                return (random.nextFloat() - 0.5f) * 2000;
+            case 2:
+                return Float.intBitsToFloat(random.nextInt()) + 0.0f;
+            default:
+                return Math.round(random.nextFloat() * 100) / 4f;
+        }
+    }
+
+    private static Product product(String id, float price)
+    {
+        HashSet<EmbeddedCategory> categories = new HashSet<>();
+        categories.add(new EmbeddedCategory("cat", "Category"));
+        Product product = new Product("Product " + id, "", price, null, categories);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,196 @@
+package com.wissen.mandihub.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoaringBitmapTest
+{
+    //Within one container, across a few and across many; the densities put containers on both sides of ARRAY_LIMIT.
+    private static final int[] RANGES = {1_000, 70_000, 300_000, 2_000_000};
+    private static final double[] DENSITIES = {0.001, 0.01, 0.05, 0.5, 0.9};
+
+    private final Random random = new Random(42);
+
+
+    @Test
+    void addRemoveAndContainsMatchBitSet()
+    {
+        for (int round = 0; round < 40; round++)
+        {
+            int range = RANGES[round % RANGES.length];
+            RoaringBitmap bitmap = new RoaringBitmap();
+            BitSet expected = new BitSet();
+            fill(bitmap, expected, range, DENSITIES[random.nextInt(DENSITIES.length)]);
+            assertEquals(expected.cardinality(), bitmap.cardinality());
+            for (int i = 0; i < 5_000; i++)
+            {
+                int value = random.nextInt(range);
+                assertEquals(expected.get(value), bitmap.contains(value), "contains " + value);
+            }
+            assertEquals(expected, toBitSet(bitmap));
+        }
+    }
+
+    @Test
+    void andOrAndCardinalityMatchBitSet()
+    {
+        for (int round = 0; round < 60; round++)
+        {
+            int range = RANGES[round % RANGES.length];
+            RoaringBitmap left = new RoaringBitmap();
+            BitSet leftBits = new BitSet();
+            fill(left, leftBits, range, DENSITIES[random.nextInt(DENSITIES.length)]);
+            RoaringBitmap right = new RoaringBitmap();
+            BitSet rightBits = new BitSet();
+            fill(right, rightBits, range, DENSITIES[random.nextInt(DENSITIES.length)]);
+
+            BitSet and = (BitSet) leftBits.clone();
+            and.and(rightBits);
+            BitSet or = (BitSet) leftBits.clone();
+            or.or(rightBits);
+            assertEquals(and, toBitSet(left.and(right)), "and, round " + round);
+            assertEquals(and, toBitSet(right.and(left)), "and, round " + round);
+            assertEquals(or, toBitSet(left.or(right)), "or, round " + round);
+            assertEquals(and.cardinality(), left.andCardinality(right), "andCardinality, round " + round);
+            assertEquals(and.cardinality(), right.andCardinality(left), "andCardinality, round " + round);
+            assertEquals(and.cardinality(), left.withBitmapContainers().andCardinality(right), "dense andCardinality, round " + round);
+            assertEquals(and.cardinality(), left.withBitmapContainers().andCardinality(right.withBitmapContainers()), "dense andCardinality, round " + round);
+            assertEquals(and, toBitSet(left.withBitmapContainers().and(right)), "dense and, round " + round);
+            assertEquals(leftBits, toBitSet(left.or(right).and(left)), "absorption, round " + round);
+        }
+    }
+
+    @Test
+    void containersConvertAtArrayLimit()
+    {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        //The values of the container of key 1 in random order, around the 65536 boundary of its neighbours.
+        int[] values = new int[RoaringBitmap.ARRAY_LIMIT + 100];
+        int[] shuffled = shuffledRange(65_536, 65_536);
+        System.arraycopy(shuffled, 0, values, 0, values.length);
+        bitmap.add(65_535);
+        expected.set(65_535);
+        bitmap.add(131_072);
+        expected.set(131_072);
+        for (int i = 0; i < values.length; i++)
+        {
+            assertTrue(bitmap.add(values[i]));
+            expected.set(values[i]);
+            if (i >= RoaringBitmap.ARRAY_LIMIT - 2 && i <= RoaringBitmap.ARRAY_LIMIT + 1)
+            {
+                assertEquals(expected, toBitSet(bitmap), "after adding " + (i + 1));
+            }
+        }
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        for (int i = values.length - 1; i >= 0; i--)
+        {
+            assertTrue(bitmap.remove(values[i]));
+            expected.clear(values[i]);
+            if (i >= RoaringBitmap.ARRAY_LIMIT - 2 && i <= RoaringBitmap.ARRAY_LIMIT + 1 || i < 3)
+            {
+                assertEquals(expected, toBitSet(bitmap), "after removing down to " + i);
+                assertEquals(expected.cardinality(), bitmap.cardinality());
+            }
+        }
+        assertEquals(2, bitmap.cardinality());
+        assertTrue(bitmap.add(65_600));
+        assertEquals(3, bitmap.cardinality());
+    }
+
+    @Test
+    void andAndOrLeaveTheirOperandsUnchanged()
+    {
+        for (int round = 0; round < 20; round++)
+        {
+            int range = RANGES[round % RANGES.length];
+            RoaringBitmap left = new RoaringBitmap();
+            BitSet leftBits = new BitSet();
+            fill(left, leftBits, range, DENSITIES[random.nextInt(DENSITIES.length)]);
+            RoaringBitmap right = new RoaringBitmap();
+            BitSet rightBits = new BitSet();
+            fill(right, rightBits, range, DENSITIES[random.nextInt(DENSITIES.length)]);
+
+            RoaringBitmap or = left.or(right);
+            RoaringBitmap and = left.and(right);
+            or.and(and).andCardinality(left.withBitmapContainers());
+            and.or(or).and(right.withBitmapContainers());
+            assertEquals(leftBits, toBitSet(left));
+            assertEquals(rightBits, toBitSet(right));
+            assertEquals(leftBits.cardinality(), left.cardinality());
+            assertEquals(rightBits.cardinality(), right.cardinality());
+        }
+    }
+
+    @Test
+    void emptyBitmaps()
+    {
+        RoaringBitmap empty = new RoaringBitmap();
+        RoaringBitmap other = new RoaringBitmap();
+        other.add(7);
+        assertEquals(0, empty.cardinality());
+        assertEquals(0, empty.and(other).cardinality());
+        assertEquals(1, empty.or(other).cardinality());
+        assertEquals(0, other.andCardinality(empty));
+        assertEquals(false, empty.remove(7));
+        assertTrue(other.remove(7));
+        assertEquals(0, other.cardinality());
+        assertEquals(false, other.contains(7));
+    }
+
+    //Adds and removes random values, checking the results of add and remove against the BitSet.
+    private void fill(RoaringBitmap bitmap, BitSet expected, int range, double density)
+    {
+        int operations = (int) (range * density * 2);
+        for (int i = 0; i < operations; i++)
+        {
+            int value = random.nextInt(range);
+            if (random.nextInt(3) > 0)
+            {
+                assertEquals(!expected.get(value), bitmap.add(value), "add " + value);
+                expected.set(value);
+            }
+            else
+            {
+                assertEquals(expected.get(value), bitmap.remove(value), "remove " + value);
+                expected.clear(value);
+            }
+        }
+    }
+
+    private int[] shuffledRange(int from, int length)
+    {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++)
+        {
+            values[i] = from + i;
+        }
+        for (int i = length - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        return values;
+    }
+
+    //Also checks that forEach visits the values in ascending order.
+    private static BitSet toBitSet(RoaringBitmap bitmap)
+    {
+        BitSet bits = new BitSet();
+        int[] last = {-1};
+        bitmap.forEach(value ->
+        {
+            assertTrue(value > last[0], "forEach out of order at " + value);
+            last[0] = value;
+            bits.set(value);
+        });
+        return bits;
+    }
+}